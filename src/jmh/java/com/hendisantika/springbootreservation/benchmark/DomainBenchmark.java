@@ -0,0 +1,97 @@
+package com.hendisantika.springbootreservation.benchmark;
+
+import com.hendisantika.springbootreservation.domain.ReservableRoom;
+import com.hendisantika.springbootreservation.domain.ReservableRoomId;
+import com.hendisantika.springbootreservation.domain.Reservation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conflict check and composite key of the reservation domain.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DomainBenchmark {
+
+    private Reservation reservation;
+
+    private Reservation overlapping;
+
+    private Reservation otherRoom;
+
+    private ReservableRoomId id;
+
+    private ReservableRoomId equalId;
+
+    private ReservableRoomId otherId;
+
+    @Setup
+    public void setUp() {
+        LocalDate date = LocalDate.of(2025, 6, 2);
+        // Distinct but equal instances, as produced by separate requests
+        id = new ReservableRoomId(1000, date);
+        equalId = new ReservableRoomId(1000, LocalDate.of(2025, 6, 2));
+        otherId = new ReservableRoomId(1001, date);
+
+        reservation = reservation(id, LocalTime.of(10, 0), LocalTime.of(11, 0));
+        overlapping = reservation(equalId, LocalTime.of(10, 30), LocalTime.of(12, 0));
+        otherRoom = reservation(otherId, LocalTime.of(10, 0), LocalTime.of(11, 0));
+    }
+
+    @Benchmark
+    public boolean overlapSameRoom() {
+        return reservation.overlap(overlapping);
+    }
+
+    @Benchmark
+    public boolean overlapOtherRoom() {
+        return reservation.overlap(otherRoom);
+    }
+
+    @Benchmark
+    public boolean slotMaskConflict() {
+        return (reservation.slotMask() & overlapping.slotMask()) != 0;
+    }
+
+    @Benchmark
+    public int reservableRoomIdHashCode() {
+        return id.hashCode();
+    }
+
+    @Benchmark
+    public boolean reservableRoomIdEquals() {
+        return id.equals(equalId);
+    }
+
+    @Benchmark
+    public boolean reservableRoomIdNotEquals() {
+        return id.equals(otherId);
+    }
+
+    private static Reservation reservation(ReservableRoomId id, LocalTime startTime, LocalTime endTime) {
+        ReservableRoom reservableRoom = new ReservableRoom();
+        reservableRoom.setReservableRoomId(id);
+        Reservation reservation = new Reservation();
+        reservation.setReservableRoom(reservableRoom);
+        reservation.setStartTime(startTime);
+        reservation.setEndTime(endTime);
+        return reservation;
+    }
+
+}
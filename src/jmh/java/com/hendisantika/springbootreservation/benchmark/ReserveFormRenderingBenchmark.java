@@ -0,0 +1,156 @@
+package com.hendisantika.springbootreservation.benchmark;
+
+import com.hendisantika.springbootreservation.annotation.ReservationForm;
+import com.hendisantika.springbootreservation.domain.MeetingRoom;
+import com.hendisantika.springbootreservation.domain.RoleName;
+import com.hendisantika.springbootreservation.domain.User;
+import com.hendisantika.springbootreservation.dto.ReservationView;
+import com.hendisantika.springbootreservation.service.ReservationUserDetails;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.access.expression.DefaultWebSecurityExpressionHandler;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.GenericWebApplicationContext;
+import org.springframework.web.servlet.support.RequestContext;
+import org.springframework.web.servlet.view.AbstractTemplateView;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.extras.springsecurity6.dialect.SpringSecurityDialect;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.spring6.expression.ThymeleafEvaluationContext;
+import org.thymeleaf.spring6.naming.SpringContextVariableNames;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Thymeleaf rendering of {@code reservation/reserveForm} with a growing number of reservations,
+ * using the Spring and Spring Security dialects like the application does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReserveFormRenderingBenchmark {
+
+    @Param({"0", "10", "48"})
+    public int reservationCount;
+
+    private final MockServletContext servletContext = new MockServletContext();
+
+    private GenericWebApplicationContext applicationContext;
+
+    private SpringTemplateEngine templateEngine;
+
+    private JakartaServletWebApplication webApplication;
+
+    private Map<String, Object> model;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        applicationContext = new GenericWebApplicationContext(servletContext);
+        applicationContext.registerBean(DefaultWebSecurityExpressionHandler.class);
+        applicationContext.refresh();
+        servletContext.setAttribute(WebApplicationContext.ROOT_WEB_APPLICATION_CONTEXT_ATTRIBUTE, applicationContext);
+
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        templateResolver.setCharacterEncoding("UTF-8");
+        templateResolver.setCacheable(true);
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setEnableSpringELCompiler(true);
+        templateEngine.addDialect(new SpringSecurityDialect());
+        webApplication = JakartaServletWebApplication.buildApplication(servletContext);
+
+        User user = new User();
+        user.setUserId("naruto");
+        user.setFirstName("Uzumaki");
+        user.setLastName("Naruto");
+        user.setRoleName(RoleName.USER);
+        ReservationUserDetails principal = new ReservationUserDetails(user);
+        // JMH may run the benchmark on another thread than this setup
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+
+        MeetingRoom room = new MeetingRoom();
+        room.setRoomId(1);
+        room.setRoomName("Konohagakure");
+        List<ReservationView> reservations = new ArrayList<>();
+        for (int i = 0; i < reservationCount; i++) {
+            LocalTime start = LocalTime.MIDNIGHT.plusMinutes(30L * i);
+            reservations.add(new ReservationView(i + 1, start, start.plusMinutes(30),
+                    i % 2 == 0 ? "naruto" : "sasuke", "First" + i, "Last" + i));
+        }
+
+        model = new HashMap<>();
+        model.put("date", LocalDate.of(2025, 6, 2));
+        model.put("roomId", 1);
+        model.put("room", room);
+        model.put("reservations", reservations);
+        model.put("reservationForm", new ReservationForm());
+        model.put("timeList", Stream.iterate(LocalTime.MIDNIGHT, t -> t.plusMinutes(30)).limit(48).toList());
+        model.put(ThymeleafEvaluationContext.THYMELEAF_EVALUATION_CONTEXT_CONTEXT_VARIABLE_NAME,
+                new ThymeleafEvaluationContext(applicationContext, new DefaultConversionService()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public String render() {
+        MockHttpServletRequest request = new MockHttpServletRequest(servletContext, "GET", "/reservations/2025-06-02/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // What ThymeleafView adds to the model of every request
+        Map<String, Object> variables = new HashMap<>(model);
+        variables.put(BindingResult.MODEL_KEY_PREFIX + "reservationForm",
+                new BeanPropertyBindingResult(model.get("reservationForm"), "reservationForm"));
+        RequestContext requestContext = new RequestContext(request, response, servletContext, variables);
+        variables.put(AbstractTemplateView.SPRING_MACRO_REQUEST_CONTEXT_ATTRIBUTE, requestContext);
+        variables.put(SpringContextVariableNames.SPRING_REQUEST_CONTEXT, requestContext);
+
+        WebContext context = new WebContext(webApplication.buildExchange(request, response), Locale.US, variables);
+        StringWriter writer = new StringWriter(32 * 1024);
+        templateEngine.process("reservation/reserveForm", context, writer);
+        return writer.toString();
+    }
+
+}
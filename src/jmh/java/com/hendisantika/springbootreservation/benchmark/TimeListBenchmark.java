@@ -0,0 +1,44 @@
+package com.hendisantika.springbootreservation.benchmark;
+
+import com.hendisantika.springbootreservation.controller.ReservationController;
+import org.objenesis.ObjenesisStd;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time slot list that {@link ReservationController} builds for every request of the form.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeListBenchmark {
+
+    private ReservationController controller;
+
+    @Setup
+    public void setUp() {
+        // timeList() uses no collaborators, so the controller is created without its constructor
+        controller = new ObjenesisStd().newInstance(ReservationController.class);
+    }
+
+    @Benchmark
+    public List<LocalTime> timeList() {
+        return controller.timeList();
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.hendisantika.springbootreservation.benchmark;
+
+import com.hendisantika.springbootreservation.annotation.ReservationForm;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean Validation of the reservation form, which runs {@code ThirtyMinutesUnitValidator} on both
+ * times and {@code EndTimeMustBeAfterStartTimeValidator} on the form.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+
+    private Validator validator;
+
+    private ReservationForm valid;
+
+    private ReservationForm notThirtyMinutes;
+
+    private ReservationForm endBeforeStart;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        valid = form(LocalTime.of(10, 0), LocalTime.of(11, 30));
+        notThirtyMinutes = form(LocalTime.of(10, 15), LocalTime.of(11, 0));
+        endBeforeStart = form(LocalTime.of(11, 0), LocalTime.of(10, 0));
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ReservationForm>> validForm() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ReservationForm>> notThirtyMinutes() {
+        return validator.validate(notThirtyMinutes);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ReservationForm>> endBeforeStart() {
+        return validator.validate(endBeforeStart);
+    }
+
+    private static ReservationForm form(LocalTime startTime, LocalTime endTime) {
+        ReservationForm form = new ReservationForm();
+        form.setStartTime(startTime);
+        form.setEndTime(endTime);
+        return form;
+    }
+
+}
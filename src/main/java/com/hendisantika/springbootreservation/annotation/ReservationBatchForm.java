@@ -0,0 +1,36 @@
+package com.hendisantika.springbootreservation.annotation;
+
+import com.hendisantika.springbootreservation.domain.TimeSlots;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Several time ranges of one room and date, booked together.
+ */
+public class ReservationBatchForm implements Serializable {
+
+    /**
+     * Upper bound of the time ranges of one batch. Ranges of a room-day can not overlap, so no valid
+     * batch has more ranges than the day has slots.
+     */
+    public static final int MAX_SLOTS = TimeSlots.SLOTS_PER_DAY;
+
+    @Valid
+    @NotEmpty(message = "Required")
+    @Size(max = MAX_SLOTS, message = "At most " + MAX_SLOTS + " time ranges are allowed")
+    private List<ReservationForm> slots = new ArrayList<>();
+
+    public List<ReservationForm> getSlots() {
+        return slots;
+    }
+
+    public void setSlots(List<ReservationForm> slots) {
+        this.slots = slots;
+    }
+
+}
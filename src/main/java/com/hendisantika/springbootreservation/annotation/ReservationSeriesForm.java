@@ -0,0 +1,37 @@
+package com.hendisantika.springbootreservation.annotation;
+
+import com.hendisantika.springbootreservation.domain.Recurrence;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * A recurring booking starting on {@code date}, e.g. WEEKLY with 12 occurrences.
+ */
+public class ReservationSeriesForm extends RoomSlotForm {
+
+    @NotNull(message = "Required")
+    private Recurrence recurrence;
+
+    @NotNull(message = "Required")
+    @Min(value = 1, message = "At least one occurrence is required")
+    @Max(value = 366, message = "At most 366 occurrences are allowed")
+    private Integer occurrences;
+
+    public Recurrence getRecurrence() {
+        return recurrence;
+    }
+
+    public void setRecurrence(Recurrence recurrence) {
+        this.recurrence = recurrence;
+    }
+
+    public Integer getOccurrences() {
+        return occurrences;
+    }
+
+    public void setOccurrences(Integer occurrences) {
+        this.occurrences = occurrences;
+    }
+
+}
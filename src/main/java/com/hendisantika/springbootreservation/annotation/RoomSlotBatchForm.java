@@ -0,0 +1,35 @@
+package com.hendisantika.springbootreservation.annotation;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Time ranges across any rooms and dates, booked together as JSON.
+ */
+public class RoomSlotBatchForm implements Serializable {
+
+    /**
+     * Upper bound of the entries of one batch, so a single request can not hold the locks of
+     * arbitrarily many room-days.
+     */
+    public static final int MAX_RESERVATIONS = 100;
+
+    @Valid
+    @NotEmpty(message = "Required")
+    @Size(max = MAX_RESERVATIONS, message = "At most " + MAX_RESERVATIONS + " reservations are allowed")
+    private List<RoomSlotForm> reservations = new ArrayList<>();
+
+    public List<RoomSlotForm> getReservations() {
+        return reservations;
+    }
+
+    public void setReservations(List<RoomSlotForm> reservations) {
+        this.reservations = reservations;
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.hendisantika.springbootreservation.annotation;
+
+import jakarta.validation.constraints.NotNull;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * A reservation time range for an explicit room and date, used where several
+ * rooms or dates are booked with one request.
+ */
+public class RoomSlotForm extends ReservationForm {
+
+    @NotNull(message = "Required")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate date;
+
+    @NotNull(message = "Required")
+    private Integer roomId;
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public Integer getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(Integer roomId) {
+        this.roomId = roomId;
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.hendisantika.springbootreservation.config;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits how many password hashes are computed at the same time.
+ * <p>
+ * A BCrypt verification keeps a request thread busy for tens to hundreds of milliseconds. Without a
+ * limit a login spike occupies the whole servlet thread pool and starves reservation traffic.
+ * Logins beyond the limit wait briefly for a permit and are rejected when none becomes free.
+ */
+class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    private final Semaphore permits;
+
+    private final Duration timeout;
+
+    BoundedPasswordEncoder(PasswordEncoder delegate, int maxConcurrentHashes, Duration timeout) {
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxConcurrentHashes, true);
+        this.timeout = timeout;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        acquire();
+        try {
+            return delegate.encode(rawPassword);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        acquire();
+        try {
+            return delegate.matches(rawPassword, encodedPassword);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private void acquire() {
+        try {
+            if (!permits.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new AuthenticationServiceException("Too many concurrent logins, please try again");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AuthenticationServiceException("Interrupted while waiting to verify the password", e);
+        }
+    }
+
+}
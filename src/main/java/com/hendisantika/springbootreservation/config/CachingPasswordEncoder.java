@@ -0,0 +1,79 @@
+package com.hendisantika.springbootreservation.config;
+
+import org.springframework.cache.Cache;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+
+/**
+ * Remembers successful password verifications for a while.
+ * <p>
+ * Clients of the JSON API send their credentials with every request. Without this, each call would
+ * run a BCrypt verification and queue for a permit of {@link BoundedPasswordEncoder}; with it, a
+ * client pays for BCrypt once per cache lifetime. Entries are keyed by an HMAC of the stored hash and
+ * the raw password under a key that only lives in this process, so the cache holds no password and
+ * an entry stops matching as soon as the stored hash changes. Failed verifications are not
+ * remembered, so guessing a password stays as expensive as before.
+ */
+class CachingPasswordEncoder implements PasswordEncoder {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final PasswordEncoder delegate;
+
+    private final Cache verified;
+
+    private final SecretKeySpec key;
+
+    CachingPasswordEncoder(PasswordEncoder delegate, Cache verified) {
+        this.delegate = delegate;
+        this.verified = verified;
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+        String fingerprint = fingerprint(rawPassword, encodedPassword);
+        if (verified.get(fingerprint) != null) {
+            return true;
+        }
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        if (matches) {
+            verified.put(fingerprint, Boolean.TRUE);
+        }
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private String fingerprint(CharSequence rawPassword, String encodedPassword) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            mac.update(encodedPassword.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return HexFormat.of().formatHex(mac.doFinal(rawPassword.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.hendisantika.springbootreservation.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes hit, miss and put counts of the Hibernate second-level cache regions as
+ * {@code reservation.cache.*} meters, tagged by region. Totals over all cached queries are tagged
+ * {@code region=query-cache}.
+ */
+@Component
+public class HibernateCacheMetrics implements MeterBinder {
+
+    private final Statistics statistics;
+
+    public HibernateCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics == null) {
+                continue;
+            }
+            counter(registry, "reservation.cache.hits", region, regionStatistics, CacheRegionStatistics::getHitCount);
+            counter(registry, "reservation.cache.misses", region, regionStatistics, CacheRegionStatistics::getMissCount);
+            counter(registry, "reservation.cache.puts", region, regionStatistics, CacheRegionStatistics::getPutCount);
+            Gauge.builder("reservation.cache.size", regionStatistics, CacheRegionStatistics::getElementCountInMemory)
+                    .tag("region", region)
+                    .register(registry);
+        }
+        counter(registry, "reservation.cache.hits", "query-cache", statistics, Statistics::getQueryCacheHitCount);
+        counter(registry, "reservation.cache.misses", "query-cache", statistics, Statistics::getQueryCacheMissCount);
+        counter(registry, "reservation.cache.puts", "query-cache", statistics, Statistics::getQueryCachePutCount);
+    }
+
+    private static <T> void counter(MeterRegistry registry, String name, String region, T source,
+                                    ToDoubleFunction<T> count) {
+        FunctionCounter.builder(name, source, count)
+                .tag("region", region)
+                .register(registry);
+    }
+
+}
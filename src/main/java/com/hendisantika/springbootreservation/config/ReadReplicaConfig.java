@@ -0,0 +1,125 @@
+package com.hendisantika.springbootreservation.config;
+
+import com.hendisantika.springbootreservation.service.ReadYourWritesTracker;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+import java.io.Closeable;
+
+/**
+ * Routes read-only transactions to a replica when {@code reservation.datasource.replica.url} is set.
+ * <p>
+ * The auto-configured primary pool is kept as is and wrapped together with a replica pool into a
+ * {@link ReplicaRoutingDataSource}. Username, password and schema default to those of the primary.
+ * Hibernate then releases the connection after every transaction, so a request does not keep the
+ * connection of its first transaction for the reads that follow a write, or the other way round.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "reservation.datasource.replica", name = "url")
+public class ReadReplicaConfig {
+
+    private static final String CONNECTION_HANDLING = "hibernate.connection.handling_mode";
+
+    @Bean
+    static RoutingPostProcessor replicaRoutingDataSourcePostProcessor(Environment environment,
+                                                                      ObjectProvider<ReadYourWritesTracker> readYourWritesTracker,
+                                                                      ObjectProvider<MeterRegistry> meterRegistry) {
+        return new RoutingPostProcessor(environment, readYourWritesTracker, meterRegistry);
+    }
+
+    @Bean
+    static BeanPostProcessor replicaConnectionHandlingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractEntityManagerFactoryBean entityManagerFactory) {
+                    entityManagerFactory.getJpaPropertyMap().putIfAbsent(CONNECTION_HANDLING,
+                            "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static HikariDataSource replica(Environment environment, HikariDataSource primary) {
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setJdbcUrl(environment.getRequiredProperty("reservation.datasource.replica.url"));
+        replica.setUsername(environment.getProperty("reservation.datasource.replica.username", primary.getUsername()));
+        replica.setPassword(environment.getProperty("reservation.datasource.replica.password", primary.getPassword()));
+        replica.setSchema(primary.getSchema());
+        replica.setDriverClassName(primary.getDriverClassName());
+        replica.setMaximumPoolSize(environment.getProperty("reservation.datasource.replica.maximum-pool-size",
+                Integer.class, primary.getMaximumPoolSize()));
+        replica.setDataSourceProperties(primary.getDataSourceProperties());
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    /**
+     * Wraps the primary pool into the routing. Ordered, so it runs before unordered post-processors
+     * that wrap the {@code DataSource} bean, such as the statement counting.
+     */
+    static class RoutingPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final Environment environment;
+
+        private final ObjectProvider<ReadYourWritesTracker> readYourWritesTracker;
+
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+
+        RoutingPostProcessor(Environment environment,
+                             ObjectProvider<ReadYourWritesTracker> readYourWritesTracker,
+                             ObjectProvider<MeterRegistry> meterRegistry) {
+            this.environment = environment;
+            this.readYourWritesTracker = readYourWritesTracker;
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!"dataSource".equals(beanName) || !(bean instanceof HikariDataSource primary)) {
+                return bean;
+            }
+            HikariDataSource replica = replica(environment, primary);
+            meterRegistry.ifAvailable(registry -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            return new RoutingDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, readYourWritesTracker));
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+    }
+
+    /**
+     * Lazy proxy that closes both pools when the context shuts down.
+     */
+    static class RoutingDataSourceProxy extends LazyConnectionDataSourceProxy implements Closeable {
+
+        private final ReplicaRoutingDataSource routingDataSource;
+
+        RoutingDataSourceProxy(ReplicaRoutingDataSource routingDataSource) {
+            super(routingDataSource);
+            this.routingDataSource = routingDataSource;
+        }
+
+        @Override
+        public void close() {
+            routingDataSource.close();
+        }
+
+    }
+
+}
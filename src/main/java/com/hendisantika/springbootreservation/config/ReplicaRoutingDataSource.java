@@ -0,0 +1,59 @@
+package com.hendisantika.springbootreservation.config;
+
+import com.hendisantika.springbootreservation.service.ReadYourWritesTracker;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to the primary pool.
+ * Users that changed reservations within the read-your-writes window keep reading from the primary.
+ * Spring Data repository reads called outside a service transaction are read-only as well and follow
+ * the same rule; reads that join a writing transaction always stay on the primary.
+ * <p>
+ * The decision depends on the transaction, so this must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} that fetches the
+ * connection when the first statement runs rather than when the transaction begins.
+ */
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final HikariDataSource primary;
+
+    private final HikariDataSource replica;
+
+    private final ObjectProvider<ReadYourWritesTracker> readYourWritesTracker;
+
+    ReplicaRoutingDataSource(HikariDataSource primary, HikariDataSource replica,
+                             ObjectProvider<ReadYourWritesTracker> readYourWritesTracker) {
+        this.primary = primary;
+        this.replica = replica;
+        this.readYourWritesTracker = readYourWritesTracker;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Target.PRIMARY;
+        }
+        ReadYourWritesTracker tracker = readYourWritesTracker.getIfAvailable();
+        return tracker != null && tracker.isPinnedToPrimary() ? Target.PRIMARY : Target.REPLICA;
+    }
+
+    @Override
+    public void close() {
+        replica.close();
+        primary.close();
+    }
+
+}
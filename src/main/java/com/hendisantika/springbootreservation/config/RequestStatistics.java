@@ -0,0 +1,106 @@
+package com.hendisantika.springbootreservation.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Database work done on behalf of the current HTTP request: SQL statements sent, loaded entities
+ * and second-level cache lookups.
+ * <p>
+ * Counting is active between {@link #begin()} and {@link #end()} on the request thread; work on
+ * other threads, e.g. scheduled jobs, is not counted. A {@code begin()} inside an active one, e.g. a
+ * request performed by a test that measures it, continues the outer counts until its {@code end()}.
+ */
+public final class RequestStatistics {
+
+    private static final ThreadLocal<RequestStatistics> CURRENT = new ThreadLocal<>();
+
+    private final List<String> statements = new ArrayList<>();
+
+    private int depth;
+
+    private long entityLoads;
+
+    private long cacheHits;
+
+    private long cacheMisses;
+
+    private RequestStatistics() {
+    }
+
+    /**
+     * Start counting for the current thread.
+     *
+     * @return the counts of the current request
+     */
+    public static RequestStatistics begin() {
+        RequestStatistics statistics = CURRENT.get();
+        if (statistics == null) {
+            statistics = new RequestStatistics();
+            CURRENT.set(statistics);
+        }
+        statistics.depth++;
+        return statistics;
+    }
+
+    /**
+     * Stop counting for the current thread.
+     */
+    public static void end() {
+        RequestStatistics statistics = CURRENT.get();
+        if (statistics != null && --statistics.depth == 0) {
+            CURRENT.remove();
+        }
+    }
+
+    static void statementSent(String sql) {
+        RequestStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.statements.add(sql);
+        }
+    }
+
+    static void entityLoaded() {
+        RequestStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.entityLoads++;
+        }
+    }
+
+    static void cacheLookup(boolean hit) {
+        RequestStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            if (hit) {
+                statistics.cacheHits++;
+            } else {
+                statistics.cacheMisses++;
+            }
+        }
+    }
+
+    public long getStatements() {
+        return statements.size();
+    }
+
+    /**
+     * Return the SQL of the statements sent so far, in order.
+     *
+     * @return statements sent since {@link #begin()}
+     */
+    public List<String> getSql() {
+        return List.copyOf(statements);
+    }
+
+    public long getEntityLoads() {
+        return entityLoads;
+    }
+
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+}
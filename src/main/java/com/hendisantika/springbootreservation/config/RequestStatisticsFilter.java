@@ -0,0 +1,58 @@
+package com.hendisantika.springbootreservation.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Publishes the database work of every request as distribution summaries tagged by URI pattern:
+ * {@code reservation.request.statements}, {@code reservation.request.entity-loads},
+ * {@code reservation.request.cache-hits} and {@code reservation.request.cache-misses}. The counts are
+ * fed by {@link StatementCountingPostProcessor}, {@link RequestStatisticsSessionListener} and
+ * {@link RequestStatisticsIntegrator}.
+ */
+@Component
+public class RequestStatisticsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestStatisticsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestStatistics statistics = RequestStatistics.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestStatistics.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) {
+                String uri = pattern.toString();
+                record("reservation.request.statements", "SQL statements sent per request", uri, statistics.getStatements());
+                record("reservation.request.entity-loads", "Entities loaded per request", uri, statistics.getEntityLoads());
+                record("reservation.request.cache-hits", "Second-level cache hits per request", uri, statistics.getCacheHits());
+                record("reservation.request.cache-misses", "Second-level cache misses per request", uri, statistics.getCacheMisses());
+            }
+        }
+    }
+
+    private void record(String name, String description, String uri, long value) {
+        DistributionSummary.builder(name)
+                .description(description)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(value);
+    }
+
+}
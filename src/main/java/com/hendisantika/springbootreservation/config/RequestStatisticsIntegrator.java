@@ -0,0 +1,23 @@
+package com.hendisantika.springbootreservation.config;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+
+/**
+ * Counts every entity Hibernate loads in {@link RequestStatistics}. Registered through
+ * {@code META-INF/services/org.hibernate.integrator.spi.Integrator}, so the listener is part of the
+ * session factory from the start instead of being appended by a bean.
+ */
+public class RequestStatisticsIntegrator implements Integrator {
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        sessionFactory.getEventListenerRegistry()
+                .appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> RequestStatistics.entityLoaded());
+    }
+
+}
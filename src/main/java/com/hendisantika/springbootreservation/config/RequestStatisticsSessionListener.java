@@ -0,0 +1,17 @@
+package com.hendisantika.springbootreservation.config;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Feeds second-level cache lookups of every Hibernate session into {@link RequestStatistics}; statements
+ * are counted by {@link StatementCountingPostProcessor} for Hibernate and {@code JdbcTemplate} alike.
+ * Registered through {@code hibernate.session.events.auto}.
+ */
+public class RequestStatisticsSessionListener implements SessionEventListener {
+
+    @Override
+    public void cacheGetEnd(boolean hit) {
+        RequestStatistics.cacheLookup(hit);
+    }
+
+}
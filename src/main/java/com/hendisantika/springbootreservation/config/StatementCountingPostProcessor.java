@@ -0,0 +1,100 @@
+package com.hendisantika.springbootreservation.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Wraps the {@link DataSource} bean so that every SQL statement sent through it is counted in
+ * {@link RequestStatistics}, whether it comes from Hibernate or from {@code JdbcTemplate}. A prepared
+ * statement counts once, however often it is executed or batched; a plain statement counts once per
+ * execution.
+ * <p>
+ * Not ordered, so it runs after the ordered post-processors and wraps the read replica routing too.
+ */
+@Component
+class StatementCountingPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)) {
+            return new CountingDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(StatementCountingPostProcessor.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Connection counting(Connection connection) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            if (method.getName().startsWith("prepare") && args != null && args[0] instanceof String sql) {
+                RequestStatistics.statementSent(sql);
+            }
+            Object result = invoke(connection, method, args);
+            if (result instanceof Statement statement && !(result instanceof PreparedStatement)) {
+                return counting(statement);
+            }
+            return result;
+        });
+    }
+
+    private static Statement counting(Statement statement) {
+        return proxy(Statement.class, (proxy, method, args) -> {
+            if (method.getName().startsWith("execute") && args != null && args[0] instanceof String sql) {
+                RequestStatistics.statementSent(sql);
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    /**
+     * Hands out counting connections and still closes the pool with the context.
+     */
+    static class CountingDataSource extends DelegatingDataSource implements Closeable {
+
+        CountingDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return counting(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return counting(super.getConnection(username, password));
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (getTargetDataSource() instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+
+    }
+
+}
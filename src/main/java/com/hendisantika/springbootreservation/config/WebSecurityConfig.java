@@ -2,18 +2,25 @@ package com.hendisantika.springbootreservation.config;
 
 import com.hendisantika.springbootreservation.service.ReservationUserDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+
 /**
  * Created by IntelliJ IDEA.
  * Project : springboot-reservation
@@ -28,12 +35,26 @@ import org.springframework.security.web.SecurityFilterChain;
 @EnableMethodSecurity(prePostEnabled = true)
 public class WebSecurityConfig {
 
+    static final String VERIFIED_CREDENTIALS_CACHE = "verifiedCredentials";
+
     @Autowired
     ReservationUserDetailsService userDetailsService;
 
+    /**
+     * BCrypt with a per-environment cost. Stored hashes without an encoder prefix or with another cost
+     * are re-hashed on the next successful login, concurrent hashing is bounded, and successful
+     * verifications are remembered in the {@value #VERIFIED_CREDENTIALS_CACHE} cache.
+     */
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    PasswordEncoder passwordEncoder(@Value("${reservation.security.bcrypt-strength:10}") int strength,
+                                    @Value("${reservation.security.max-concurrent-hashes:4}") int maxConcurrentHashes,
+                                    @Value("${reservation.security.hash-wait-timeout:2s}") Duration hashWaitTimeout,
+                                    CacheManager cacheManager) {
+        PasswordEncoder bcrypt = new StrengthAwareBCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        return new CachingPasswordEncoder(new BoundedPasswordEncoder(delegating, maxConcurrentHashes, hashWaitTimeout),
+                Objects.requireNonNull(cacheManager.getCache(VERIFIED_CREDENTIALS_CACHE)));
     }
 
     @Bean
@@ -50,15 +71,20 @@ public class WebSecurityConfig {
                         .defaultSuccessUrl("/rooms", true)
                         .failureUrl("/loginForm?error=true")
                         .permitAll()
-                );
+                )
+                // Machine clients of the JSON API authenticate per request and send no CSRF token;
+                // the password encoder remembers their verified credentials
+                .httpBasic(Customizer.withDefaults())
+                .csrf(csrf -> csrf.ignoringRequestMatchers("/api/**"));
         return http.build();
     }
 
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsService);
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
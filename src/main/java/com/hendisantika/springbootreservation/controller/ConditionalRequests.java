@@ -0,0 +1,54 @@
+package com.hendisantika.springbootreservation.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.security.Principal;
+import java.util.Objects;
+
+/**
+ * ETag handling shared by the room and reservation controllers.
+ * <p>
+ * Handlers check the version of the data they are about to show before any repository query runs
+ * and return {@code null} when the client's copy is still current, which Spring MVC answers with
+ * {@code 304 Not Modified}.
+ */
+final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * Mark the response as revalidated on every use and check {@code If-None-Match}.
+     *
+     * @param request current request
+     * @param version version of the shown data, {@code null} when unknown
+     * @return {@code true} when the client's copy is current and nothing must be rendered
+     */
+    static boolean isNotModified(ServletWebRequest request, String version) {
+        HttpServletResponse response = request.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        }
+        return version != null && request.checkNotModified(version);
+    }
+
+    /**
+     * Same as {@link #isNotModified(ServletWebRequest, String)} for pages that also contain
+     * per-user content such as the user name or the session's CSRF token.
+     *
+     * @param request current request
+     * @param version version of the shown data, {@code null} when unknown
+     * @return {@code true} when the client's copy is current and nothing must be rendered
+     */
+    static boolean isPageNotModified(ServletWebRequest request, String version) {
+        if (version == null) {
+            return isNotModified(request, null);
+        }
+        Principal principal = request.getUserPrincipal();
+        int viewer = Objects.hash(principal != null ? principal.getName() : null, request.getSessionId());
+        return isNotModified(request, version + "-" + Integer.toHexString(viewer));
+    }
+
+}
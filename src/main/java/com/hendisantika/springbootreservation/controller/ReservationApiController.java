@@ -0,0 +1,272 @@
+package com.hendisantika.springbootreservation.controller;
+
+import com.hendisantika.springbootreservation.annotation.ReservationForm;
+import com.hendisantika.springbootreservation.annotation.ReservationSeriesForm;
+import com.hendisantika.springbootreservation.annotation.RoomSlotBatchForm;
+import com.hendisantika.springbootreservation.domain.ReservableRoomId;
+import com.hendisantika.springbootreservation.domain.Reservation;
+import com.hendisantika.springbootreservation.domain.ReservationSeries;
+import com.hendisantika.springbootreservation.dto.ReservationCursor;
+import com.hendisantika.springbootreservation.dto.ReservationSummary;
+import com.hendisantika.springbootreservation.dto.ReservationView;
+import com.hendisantika.springbootreservation.dto.SeriesReservationResult;
+import com.hendisantika.springbootreservation.dto.UserReservationPage;
+import com.hendisantika.springbootreservation.exception.AlreadyReservedException;
+import com.hendisantika.springbootreservation.exception.InvalidPageRequestException;
+import com.hendisantika.springbootreservation.exception.UnavailableReservationException;
+import com.hendisantika.springbootreservation.repository.MeetingRoomRepository;
+import com.hendisantika.springbootreservation.repository.ReservableRoomRepository;
+import com.hendisantika.springbootreservation.service.ReservationService;
+import com.hendisantika.springbootreservation.service.ReservationUserDetails;
+import com.hendisantika.springbootreservation.service.RoomDayVersions;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * JSON API for reservations, mirroring {@link ReservationController}.
+ * <p>
+ * Responses are built from projections and ids only, so serialization never touches lazy
+ * associations. Reservation rules and the cancel authorization are the same as for the views
+ * because both go through {@link ReservationService}.
+ */
+@RestController
+@RequestMapping("api/reservations")
+@RequiredArgsConstructor
+public class ReservationApiController {
+
+    private final ReservationService reservationService;
+    private final ReservableRoomRepository reservableRoomRepository;
+    private final MeetingRoomRepository meetingRoomRepository;
+    private final RoomDayVersions versions;
+
+    /**
+     * Return the reservations of a room on a day
+     * <p>
+     * GET /api/reservations/{date}/{roomId}
+     *
+     * @param date   The date (format: yyyy-MM-dd)
+     * @param roomId  The ID of the meeting room
+     * @param request current request, answered with 304 when the client's copy is current
+     * @return Reservations ordered by start time, 404 when the room can not be reserved on that date
+     */
+    @GetMapping(path = "{date}/{roomId}")
+    List<ReservationView> listReservations(
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @PathVariable("date") LocalDate date,
+            @PathVariable("roomId") Integer roomId,
+            ServletWebRequest request) {
+        ReservableRoomId reservableRoomId = new ReservableRoomId(roomId, date);
+        String version = versions.roomDayVersion(reservableRoomId);
+        if (version == null) {
+            throw new UnavailableReservationException("Combination of input date and room can not be reserved.");
+        }
+        if (ConditionalRequests.isNotModified(request, version)) {
+            return null;
+        }
+        return reservationService.findReservationViews(reservableRoomId);
+    }
+
+    /**
+     * Return a page of the current user's reservations in date and time order
+     * <p>
+     * GET /api/reservations/mine?from=2026-10-17&amp;size=20, then GET /api/reservations/mine?after={next}
+     * with the {@code next} cursor of the previous page until it is {@code null}
+     *
+     * @param from        First date of the first page (format: yyyy-MM-dd), today by default
+     * @param after       Cursor of the previous page; takes precedence over {@code from}
+     * @param size        Maximum number of reservations of the page, at most
+     *                    {@value ReservationController#MAX_HISTORY_PAGE_SIZE}
+     * @param userDetails The currently authenticated user
+     * @return The reservations and the cursor of the next page, 400 for an invalid cursor or size
+     */
+    @GetMapping(path = "mine")
+    UserReservationPage listMyReservations(
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @RequestParam(name = "from", required = false) LocalDate from,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "size", defaultValue = "20") int size,
+            @AuthenticationPrincipal ReservationUserDetails userDetails) {
+        if (size < 1 || size > ReservationController.MAX_HISTORY_PAGE_SIZE) {
+            throw new InvalidPageRequestException("Page size must be between 1 and "
+                    + ReservationController.MAX_HISTORY_PAGE_SIZE);
+        }
+        return reservationService.findUserReservations(userDetails.getUser().getUserId(),
+                from != null ? from : LocalDate.now(),
+                after != null ? ReservationCursor.parse(after) : null,
+                size);
+    }
+
+    /**
+     * Reserve a time range
+     * <p>
+     * POST /api/reservations/{date}/{roomId} with a JSON body {"startTime": "10:00", "endTime": "11:00"}
+     *
+     * @param reservationForm The start and end time
+     * @param date            The date (format: yyyy-MM-dd)
+     * @param roomId          The ID of the meeting room
+     * @param userDetails     The currently authenticated user
+     * @return 201 with the created reservation
+     */
+    @PostMapping(path = "{date}/{roomId}")
+    ResponseEntity<ReservationSummary> reserve(
+            @Valid @RequestBody ReservationForm reservationForm,
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @PathVariable("date") LocalDate date,
+            @PathVariable("roomId") Integer roomId,
+            @AuthenticationPrincipal ReservationUserDetails userDetails) {
+
+        Reservation reservation = newReservation(date, roomId, reservationForm, userDetails);
+
+        reservationService.reserve(reservation);
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(ReservationSummary.of(reservation));
+    }
+
+    /**
+     * Reserve time ranges across any rooms and dates in one transaction; either all or none are reserved
+     * <p>
+     * POST /api/reservations/batch with a JSON body {"reservations": [{"date", "roomId", "startTime", "endTime"}, ...]}
+     * of at most {@value RoomSlotBatchForm#MAX_RESERVATIONS} entries
+     *
+     * @param batchForm   The reservations to create
+     * @param userDetails The currently authenticated user
+     * @return 201 with the created reservations, 400 when the batch is empty or too large
+     */
+    @PostMapping(path = "batch")
+    ResponseEntity<List<ReservationSummary>> reserveBatch(
+            @Valid @RequestBody RoomSlotBatchForm batchForm,
+            @AuthenticationPrincipal ReservationUserDetails userDetails) {
+
+        List<Reservation> reservations = batchForm.getReservations().stream()
+                .map(slot -> newReservation(slot.getDate(), slot.getRoomId(), slot, userDetails))
+                .toList();
+
+        reservationService.reserveAll(reservations);
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservations.stream()
+                .map(ReservationSummary::of)
+                .toList());
+    }
+
+    /**
+     * Reserve a recurring series, e.g. every Tuesday 10:00-11:00 for 12 weeks
+     * <p>
+     * POST /api/reservations/series with a JSON body
+     * {"date", "roomId", "startTime", "endTime", "recurrence": "WEEKLY", "occurrences": 12}
+     *
+     * @param seriesForm  The first occurrence and the recurrence
+     * @param userDetails The currently authenticated user
+     * @return Reserved dates and the dates that collided or are not reservable
+     */
+    @PostMapping(path = "series")
+    SeriesReservationResult reserveSeries(
+            @Valid @RequestBody ReservationSeriesForm seriesForm,
+            @AuthenticationPrincipal ReservationUserDetails userDetails) {
+
+        ReservationSeries series = new ReservationSeries();
+        series.setMeetingRoom(meetingRoomRepository.getReferenceById(seriesForm.getRoomId()));
+        series.setUser(userDetails.getUser());
+        series.setRecurrence(seriesForm.getRecurrence());
+        series.setFirstDate(seriesForm.getDate());
+        series.setOccurrences(seriesForm.getOccurrences());
+        series.setStartTime(seriesForm.getStartTime());
+        series.setEndTime(seriesForm.getEndTime());
+
+        return reservationService.reserveSeries(series);
+    }
+
+    /**
+     * Cancel a reservation; only its owner or an administrator may do so
+     * <p>
+     * DELETE /api/reservations/{reservationId}
+     *
+     * @param reservationId The ID of the reservation
+     * @param userDetails   The currently authenticated user
+     * @return 204 when cancelled, 403 when it belongs to another user, 404 when there is no such reservation
+     */
+    @DeleteMapping(path = "{reservationId}")
+    ResponseEntity<Void> cancel(@PathVariable("reservationId") Integer reservationId,
+                                @AuthenticationPrincipal ReservationUserDetails userDetails) {
+        return reservationService.cancel(reservationId, userDetails)
+                .map(reservation -> ResponseEntity.noContent().<Void>build())
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Cancel all of the current user's reservations on a date
+     * <p>
+     * DELETE /api/reservations/mine?date=2026-10-20
+     *
+     * @param date        The date (format: yyyy-MM-dd)
+     * @param userDetails The currently authenticated user
+     * @return The cancelled reservations
+     */
+    @DeleteMapping(path = "mine")
+    List<ReservationSummary> cancelMine(
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @RequestParam("date") LocalDate date,
+            @AuthenticationPrincipal ReservationUserDetails userDetails) {
+        return reservationService.cancelAll(date, userDetails);
+    }
+
+    /**
+     * Cancel all reservations of a room in a date range; administrators only
+     * <p>
+     * DELETE /api/reservations/rooms/{roomId}?from=2026-11-02&amp;to=2026-11-06
+     *
+     * @param roomId The ID of the meeting room
+     * @param from   First date (format: yyyy-MM-dd)
+     * @param to     Last date (format: yyyy-MM-dd)
+     * @return The cancelled reservations
+     */
+    @DeleteMapping(path = "rooms/{roomId}")
+    List<ReservationSummary> clearRoom(
+            @PathVariable("roomId") Integer roomId,
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @RequestParam("from") LocalDate from,
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @RequestParam("to") LocalDate to) {
+        return reservationService.clearRoom(roomId, from, to);
+    }
+
+    private Reservation newReservation(LocalDate date, Integer roomId, ReservationForm form,
+                                       ReservationUserDetails userDetails) {
+        Reservation reservation = new Reservation();
+        reservation.setStartTime(form.getStartTime());
+        reservation.setEndTime(form.getEndTime());
+        reservation.setReservableRoom(reservableRoomRepository.getReferenceById(new ReservableRoomId(roomId, date)));
+        reservation.setUser(userDetails.getUser());
+        return reservation;
+    }
+
+    @ExceptionHandler(AlreadyReservedException.class)
+    ResponseEntity<ProblemDetail> handleAlreadyReserved(AlreadyReservedException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidPageRequestException.class)
+    ResponseEntity<ProblemDetail> handleInvalidPageRequest(InvalidPageRequestException e) {
+        return ResponseEntity.badRequest()
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    @ExceptionHandler(UnavailableReservationException.class)
+    ResponseEntity<ProblemDetail> handleUnavailable(UnavailableReservationException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, e.getMessage()));
+    }
+
+}
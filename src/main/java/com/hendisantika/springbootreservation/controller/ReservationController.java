@@ -1,19 +1,27 @@
 package com.hendisantika.springbootreservation.controller;
 
+import com.hendisantika.springbootreservation.annotation.ReservationBatchForm;
 import com.hendisantika.springbootreservation.annotation.ReservationForm;
 import com.hendisantika.springbootreservation.domain.ReservableRoom;
 import com.hendisantika.springbootreservation.domain.ReservableRoomId;
 import com.hendisantika.springbootreservation.domain.Reservation;
+import com.hendisantika.springbootreservation.dto.ReservationCursor;
+import com.hendisantika.springbootreservation.dto.ReservationView;
+import com.hendisantika.springbootreservation.dto.UserReservationPage;
 import com.hendisantika.springbootreservation.exception.AlreadyReservedException;
+import com.hendisantika.springbootreservation.exception.InvalidPageRequestException;
 import com.hendisantika.springbootreservation.exception.UnavailableReservationException;
 import com.hendisantika.springbootreservation.repository.ReservableRoomRepository;
-import com.hendisantika.springbootreservation.repository.ReservationRepository;
+import com.hendisantika.springbootreservation.service.ReservationEventBroadcaster;
 import com.hendisantika.springbootreservation.service.ReservationService;
 import com.hendisantika.springbootreservation.service.ReservationUserDetails;
+import com.hendisantika.springbootreservation.service.RoomDayVersions;
 import com.hendisantika.springbootreservation.service.RoomService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -24,6 +32,8 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -56,10 +66,16 @@ import java.util.stream.Stream;
 @RequiredArgsConstructor
 public class ReservationController {
 
+    /**
+     * Upper bound of the page size of a reservation history.
+     */
+    static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     private final ReservationService reservationService;
     private final RoomService roomService;
     private final ReservableRoomRepository reservableRoomRepository;
-    private final ReservationRepository reservationRepository;
+    private final RoomDayVersions versions;
+    private final ReservationEventBroadcaster eventBroadcaster;
 
     /**
      * Provides a list of available time slots for the reservation form
@@ -81,6 +97,7 @@ public class ReservationController {
      *
      * @param date   The date for the reservation (format: yyyy-MM-dd)
      * @param roomId The ID of the meeting room
+     * @param request current request, answered with 304 when the client's copy is current
      * @param model  Spring MVC model for passing data to the view
      * @return The name of the Thymeleaf template to render
      */
@@ -88,11 +105,17 @@ public class ReservationController {
     String reserveForm(
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @PathVariable("date") LocalDate date,
             @PathVariable("roomId") Integer roomId,
+            ServletWebRequest request,
             Model model) {
 
         // Create composite key for the reservable room
         ReservableRoomId reservableRoomId = new ReservableRoomId(roomId, date);
 
+        // Nothing was reserved or cancelled since the client's copy was rendered
+        if (ConditionalRequests.isPageNotModified(request, versions.roomDayVersion(reservableRoomId))) {
+            return null;
+        }
+
         // Fetch the reservable room from the database
         Optional<ReservableRoom> reservableRoomOptional = reservableRoomRepository.findById(reservableRoomId);
 
@@ -105,7 +128,7 @@ public class ReservationController {
         ReservableRoom reservableRoom = reservableRoomOptional.get();
 
         // Fetch all existing reservations for this room and date
-        List<Reservation> reservations = reservationService.findReservations(reservableRoomId);
+        List<ReservationView> reservations = reservationService.findReservationViews(reservableRoomId);
 
         // Add attributes to the model for the Thymeleaf template
         model.addAttribute("date", date);
@@ -117,6 +140,74 @@ public class ReservationController {
         return "reservation/reserveForm";
     }
 
+    /**
+     * Display the current user's reservations in date and time order, one page at a time
+     * <p>
+     * GET /reservations/mine?from=2026-10-17, then GET /reservations/mine?after={next} for the next page
+     *
+     * @param from        First date of the first page (format: yyyy-MM-dd), today by default
+     * @param after       Cursor of the previous page; an invalid cursor shows the first page
+     * @param size        Maximum number of reservations of the page
+     * @param userDetails The currently authenticated user
+     * @param model       Spring MVC model for passing data to the view
+     * @return The name of the Thymeleaf template to render
+     */
+    @GetMapping(path = "mine")
+    String myReservations(
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @RequestParam(name = "from", required = false) LocalDate from,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "size", defaultValue = "20") int size,
+            @AuthenticationPrincipal ReservationUserDetails userDetails,
+            Model model) {
+
+        LocalDate firstDate = from != null ? from : LocalDate.now();
+        ReservationCursor cursor = null;
+        if (after != null) {
+            try {
+                cursor = ReservationCursor.parse(after);
+            } catch (InvalidPageRequestException e) {
+                model.addAttribute("error", "The page link is no longer valid, showing the first page.");
+            }
+        }
+        int pageSize = Math.clamp(size, 1, MAX_HISTORY_PAGE_SIZE);
+        UserReservationPage page = reservationService.findUserReservations(userDetails.getUser().getUserId(),
+                firstDate, cursor, pageSize);
+
+        model.addAttribute("from", firstDate);
+        model.addAttribute("size", pageSize);
+        model.addAttribute("page", page);
+
+        return "reservation/myReservations";
+    }
+
+    /**
+     * Stream the reservation changes of all rooms on a date as Server-Sent Events
+     * <p>
+     * GET /reservations/{date}/events
+     *
+     * @param date The date (format: yyyy-MM-dd)
+     * @return Event stream with "reserved", "cancelled" and "resync" events
+     */
+    @GetMapping(path = "{date}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    SseEmitter events(@DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @PathVariable("date") LocalDate date) {
+        return eventBroadcaster.subscribe(date, null);
+    }
+
+    /**
+     * Stream the reservation changes of a room-day as Server-Sent Events
+     * <p>
+     * GET /reservations/{date}/{roomId}/events
+     *
+     * @param date   The date (format: yyyy-MM-dd)
+     * @param roomId The ID of the meeting room
+     * @return Event stream with "reserved", "cancelled" and "resync" events
+     */
+    @GetMapping(path = "{date}/{roomId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    SseEmitter events(@DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @PathVariable("date") LocalDate date,
+                      @PathVariable("roomId") Integer roomId) {
+        return eventBroadcaster.subscribe(date, roomId);
+    }
+
     /**
      * Handle the submission of a new reservation
      * <p>
@@ -147,21 +238,9 @@ public class ReservationController {
         // Create composite key for the reservable room
         ReservableRoomId reservableRoomId = new ReservableRoomId(roomId, date);
 
-        // Verify the room is available
-        Optional<ReservableRoom> reservableRoomOptional = reservableRoomRepository.findById(reservableRoomId);
-        if (reservableRoomOptional.isEmpty()) {
-            return setupFormModelWithErrors(date, roomId, model,
-                    "This room is not available for reservation on the selected date.");
-        }
-
-        ReservableRoom reservableRoom = reservableRoomOptional.get();
-
-        // Create new reservation object
-        Reservation reservation = new Reservation();
-        reservation.setStartTime(reservationForm.getStartTime());
-        reservation.setEndTime(reservationForm.getEndTime());
-        reservation.setReservableRoom(reservableRoom);
-        reservation.setUser(userDetails.getUser());
+        // Create new reservation object; availability of the room is verified by the database on insert
+        Reservation reservation = newReservation(reservableRoomRepository.getReferenceById(reservableRoomId),
+                reservationForm, userDetails);
 
         // Attempt to save the reservation
         try {
@@ -175,6 +254,48 @@ public class ReservationController {
         return "redirect:/rooms/" + date;
     }
 
+    /**
+     * Handle the submission of several time ranges of one room and date
+     * <p>
+     * POST /reservations/{date}/{roomId}?batch
+     * with fields slots[0].startTime, slots[0].endTime, slots[1].startTime, ... of at most
+     * {@value ReservationBatchForm#MAX_SLOTS} time ranges
+     *
+     * @param batchForm     The form data containing the time ranges
+     * @param bindingResult Validation results for the form
+     * @param date          The date for the reservations
+     * @param roomId        The ID of the meeting room
+     * @param userDetails   The currently authenticated user
+     * @param model         Spring MVC model for passing data to the view
+     * @return Redirect to the room list or back to the form with errors
+     */
+    @PostMapping(path = "{date}/{roomId}", params = "batch")
+    String reserveBatch(
+            @Valid @ModelAttribute ReservationBatchForm batchForm,
+            BindingResult bindingResult,
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @PathVariable("date") LocalDate date,
+            @PathVariable("roomId") Integer roomId,
+            @AuthenticationPrincipal ReservationUserDetails userDetails,
+            Model model) {
+
+        if (bindingResult.hasErrors()) {
+            return setupFormModelWithErrors(date, roomId, model, "Please correct the highlighted errors.");
+        }
+
+        ReservableRoom reservableRoom = reservableRoomRepository.getReferenceById(new ReservableRoomId(roomId, date));
+        List<Reservation> reservations = batchForm.getSlots().stream()
+                .map(slot -> newReservation(reservableRoom, slot, userDetails))
+                .toList();
+
+        try {
+            reservationService.reserveAll(reservations);
+        } catch (UnavailableReservationException | AlreadyReservedException e) {
+            return setupFormModelWithErrors(date, roomId, model, e.getMessage());
+        }
+
+        return "redirect:/rooms/" + date;
+    }
+
     /**
      * Handle cancellation of an existing reservation
      * <p>
@@ -183,6 +304,7 @@ public class ReservationController {
      * @param reservationId The ID of the reservation to cancel
      * @param roomId        The ID of the meeting room
      * @param date          The date of the reservation
+     * @param userDetails   The currently authenticated user
      * @param model         Spring MVC model for passing data to the view
      * @return Redirect back to the reservation form
      */
@@ -191,21 +313,15 @@ public class ReservationController {
             @RequestParam("reservationId") Integer reservationId,
             @PathVariable("roomId") Integer roomId,
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @PathVariable("date") LocalDate date,
+            @AuthenticationPrincipal ReservationUserDetails userDetails,
             Model model) {
 
-        // Fetch the reservation to cancel
-        Optional<Reservation> reservationOptional = reservationRepository.findById(reservationId);
-
-        if (reservationOptional.isEmpty()) {
-            return setupFormModelWithErrors(date, roomId, model, "Reservation not found.");
-        }
-
-        Reservation reservation = reservationOptional.get();
-
-        // Attempt to cancel the reservation (authorization is checked in the service)
+        // Authorized without loading the reservation; only the owner or an administrator may cancel
         try {
-            reservationService.cancel(reservation);
-        } catch (Exception e) {
+            if (reservationService.cancel(reservationId, userDetails).isEmpty()) {
+                return setupFormModelWithErrors(date, roomId, model, "Reservation not found.");
+            }
+        } catch (AccessDeniedException e) {
             return setupFormModelWithErrors(date, roomId, model,
                     "Unable to cancel reservation: " + e.getMessage());
         }
@@ -214,6 +330,35 @@ public class ReservationController {
         return "redirect:/reservations/" + date + "/" + roomId;
     }
 
+    /**
+     * Cancel all of the current user's reservations on a date
+     * <p>
+     * POST /reservations/mine?cancel with field date
+     *
+     * @param date        The date (format: yyyy-MM-dd)
+     * @param userDetails The currently authenticated user
+     * @return Redirect to the user's reservations
+     */
+    @PostMapping(path = "mine", params = "cancel")
+    String cancelMine(
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @RequestParam("date") LocalDate date,
+            @AuthenticationPrincipal ReservationUserDetails userDetails) {
+
+        reservationService.cancelAll(date, userDetails);
+
+        return "redirect:/reservations/mine";
+    }
+
+    private static Reservation newReservation(ReservableRoom reservableRoom, ReservationForm form,
+                                              ReservationUserDetails userDetails) {
+        Reservation reservation = new Reservation();
+        reservation.setStartTime(form.getStartTime());
+        reservation.setEndTime(form.getEndTime());
+        reservation.setReservableRoom(reservableRoom);
+        reservation.setUser(userDetails.getUser());
+        return reservation;
+    }
+
     /**
      * Helper method to setup the form model when there's an error
      * This ensures all necessary data is available for re-rendering the form
@@ -235,7 +380,7 @@ public class ReservationController {
         }
 
         ReservableRoom reservableRoom = reservableRoomOptional.get();
-        List<Reservation> reservations = reservationService.findReservations(reservableRoomId);
+        List<ReservationView> reservations = reservationService.findReservationViews(reservableRoomId);
 
         // Add all necessary attributes
         model.addAttribute("error", errorMessage);
@@ -243,6 +388,9 @@ public class ReservationController {
         model.addAttribute("roomId", roomId);
         model.addAttribute("room", reservableRoom.getMeetingRoom());
         model.addAttribute("reservations", reservations);
+        if (!model.containsAttribute("reservationForm")) {
+            model.addAttribute("reservationForm", new ReservationForm());
+        }
 
         return "reservation/reserveForm";
     }
@@ -0,0 +1,90 @@
+package com.hendisantika.springbootreservation.controller;
+
+import com.hendisantika.springbootreservation.dto.ImportResult;
+import com.hendisantika.springbootreservation.exception.UnsupportedTransferFormatException;
+import com.hendisantika.springbootreservation.service.ReservationExportService;
+import com.hendisantika.springbootreservation.service.ReservationImportService;
+import com.hendisantika.springbootreservation.service.TransferFormat;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+
+/**
+ * Bulk export and import of reservations as CSV or NDJSON, for administrators.
+ * <p>
+ * Both directions stream: the export writes rows to the response while they are read from the
+ * database, and the import reads the request body line by line, so neither holds the whole file.
+ */
+@RestController
+@RequestMapping("api/reservations")
+@RequiredArgsConstructor
+public class ReservationTransferController {
+
+    private final ReservationExportService exportService;
+    private final ReservationImportService importService;
+
+    /**
+     * Export the reservations of a date range
+     * <p>
+     * GET /api/reservations/export?from=2026-01-01&amp;to=2026-12-31&amp;format=csv
+     *
+     * @param from     First date (format: yyyy-MM-dd)
+     * @param to       Last date (format: yyyy-MM-dd)
+     * @param roomId   Only reservations of this meeting room
+     * @param userId   Only reservations of this user
+     * @param format   csv (default) or ndjson
+     * @param response The response the rows are written to
+     * @throws IOException when the client goes away
+     */
+    @GetMapping(path = "export")
+    void export(
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @RequestParam("from") LocalDate from,
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @RequestParam("to") LocalDate to,
+            @RequestParam(name = "roomId", required = false) Integer roomId,
+            @RequestParam(name = "userId", required = false) String userId,
+            @RequestParam(name = "format", defaultValue = "csv") String format,
+            HttpServletResponse response) throws IOException {
+        TransferFormat transferFormat = TransferFormat.named(format);
+        response.setContentType(transferFormat.getMediaType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reservations-" + from + "-" + to
+                + "." + transferFormat.getExtension() + "\"");
+        exportService.export(from, to, roomId, userId, transferFormat, response.getOutputStream());
+    }
+
+    /**
+     * Import reservations
+     * <p>
+     * POST /api/reservations/import with a text/csv or application/x-ndjson body
+     *
+     * @param contentType The content type of the body
+     * @param body        The file contents
+     * @return Numbers of imported and rejected lines, and the first rejections
+     */
+    @PostMapping(path = "import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    ImportResult importReservations(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body) {
+        return importService.importReservations(body, TransferFormat.of(contentType));
+    }
+
+    @ExceptionHandler(UnsupportedTransferFormatException.class)
+    ResponseEntity<ProblemDetail> handleUnsupportedTransferFormat(UnsupportedTransferFormatException e) {
+        return ResponseEntity.badRequest()
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.hendisantika.springbootreservation.controller;
+
+import com.hendisantika.springbootreservation.dto.ReservableRoomSummary;
+import com.hendisantika.springbootreservation.service.RoomDayVersions;
+import com.hendisantika.springbootreservation.service.RoomService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * JSON API for meeting room listings, mirroring {@link RoomController} for kiosks, bots and mobile
+ * clients without rendering the Thymeleaf views.
+ */
+@RestController
+@RequestMapping("api/rooms")
+@RequiredArgsConstructor
+public class RoomApiController {
+
+    private final RoomService roomService;
+    private final RoomDayVersions versions;
+
+    /**
+     * Return the rooms reservable today
+     * <p>
+     * GET /api/rooms
+     *
+     * @param request current request, answered with 304 when the client's copy is current
+     * @return Reservable rooms ordered by room id
+     */
+    @GetMapping
+    List<ReservableRoomSummary> listRooms(ServletWebRequest request) {
+        return listRooms(LocalDate.now(), request);
+    }
+
+    /**
+     * Return the rooms reservable on a specific day
+     * <p>
+     * GET /api/rooms/{date}
+     *
+     * @param date    The specific date (format: yyyy-MM-dd)
+     * @param request current request, answered with 304 when the client's copy is current
+     * @return Reservable rooms ordered by room id
+     */
+    @GetMapping(path = "{date}")
+    List<ReservableRoomSummary> listRooms(@DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @PathVariable("date") LocalDate date,
+                                          ServletWebRequest request) {
+        if (ConditionalRequests.isNotModified(request, versions.dateVersion(date))) {
+            return null;
+        }
+        return roomService.findReservableRooms(date).stream()
+                .map(room -> ReservableRoomSummary.of(date, room))
+                .toList();
+    }
+
+}
@@ -1,17 +1,27 @@
 package com.hendisantika.springbootreservation.controller;
 
-import com.hendisantika.springbootreservation.domain.ReservableRoom;
+import com.hendisantika.springbootreservation.annotation.ReservationForm;
+import com.hendisantika.springbootreservation.domain.TimeSlots;
+import com.hendisantika.springbootreservation.dto.DayGrid;
+import com.hendisantika.springbootreservation.dto.RoomOccupancy;
+import com.hendisantika.springbootreservation.service.RoomDayVersions;
 import com.hendisantika.springbootreservation.service.RoomService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.IntStream;
 
 /**
  * Controller for managing meeting room listings
@@ -33,18 +43,23 @@ import java.util.List;
 public class RoomController {
 
     private final RoomService roomService;
+    private final RoomDayVersions versions;
 
     /**
      * Return of today's reservation list(/rooms)
      *
+     * @param request current request, answered with 304 when the client's copy is current
      * @param model
      * @return
      */
     @GetMapping
-    String listRooms(Model model) {
+    String listRooms(ServletWebRequest request, Model model) {
         LocalDate today = LocalDate.now();
+        if (ConditionalRequests.isPageNotModified(request, versions.dateVersion(today))) {
+            return null;
+        }
         //Return today's reservation list
-        List<ReservableRoom> rooms = roomService.findReservableRooms(today);
+        List<RoomOccupancy> rooms = roomService.findReservableRooms(today);
 
         model.addAttribute("date", today);
         model.addAttribute("rooms", rooms);
@@ -57,13 +72,19 @@ public class RoomController {
      * Return of reservation list for specific day(/rooms/{date})
      *
      * @param date The specific date to show available rooms for
+     * @param request current request, answered with 304 when the client's copy is current
      * @param model Spring MVC model
      * @return The name of the Thymeleaf template to render
      */
     @GetMapping(path = "{date}")
-    String listRooms(@DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @PathVariable("date") LocalDate date, Model model) {
+    String listRooms(@DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @PathVariable("date") LocalDate date,
+                     ServletWebRequest request,
+                     Model model) {
+        if (ConditionalRequests.isPageNotModified(request, versions.dateVersion(date))) {
+            return null;
+        }
         // Get list of reservable rooms for the specified date
-        List<ReservableRoom> rooms = roomService.findReservableRooms(date);
+        List<RoomOccupancy> rooms = roomService.findReservableRooms(date);
 
         model.addAttribute("date", date);
         model.addAttribute("rooms", rooms);
@@ -71,5 +92,61 @@ public class RoomController {
         return "room/listRooms";
     }
 
+    /**
+     * Return the rooms free for a time range on a specific day(/rooms/{date}/available?startTime=&endTime=)
+     *
+     * @param date          The specific date to search free rooms for
+     * @param searchForm    The requested start and end time
+     * @param bindingResult Validation results of the time range
+     * @param model         Spring MVC model
+     * @return The name of the Thymeleaf template to render
+     */
+    @GetMapping(path = "{date}/available")
+    String listFreeRooms(@DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @PathVariable("date") LocalDate date,
+                         @Valid ReservationForm searchForm,
+                         BindingResult bindingResult,
+                         Model model) {
+        model.addAttribute("date", date);
+        model.addAttribute("startTime", searchForm.getStartTime());
+        model.addAttribute("endTime", searchForm.getEndTime());
+
+        if (bindingResult.hasErrors()) {
+            model.addAttribute("error", "Please enter a start and a later end time in 30 minute steps.");
+            model.addAttribute("rooms", roomService.findReservableRooms(date));
+            return "room/listRooms";
+        }
+
+        model.addAttribute("rooms", roomService.findFreeRooms(date, searchForm.getStartTime(), searchForm.getEndTime()));
+
+        return "room/listRooms";
+    }
+
+    /**
+     * Return the occupancy of every room across the 30-minute slots of a day(/rooms/{date}/grid)
+     *
+     * @param date  The specific date to show the occupancy for
+     * @param model Spring MVC model
+     * @return The name of the Thymeleaf template to render
+     */
+    @GetMapping(path = "{date}/grid")
+    String dayGrid(@DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @PathVariable("date") LocalDate date, Model model) {
+        model.addAttribute("date", date);
+        model.addAttribute("grid", roomService.findDayGrid(date));
+        model.addAttribute("slots", IntStream.range(0, TimeSlots.SLOTS_PER_DAY).boxed().toList());
+
+        return "room/dayGrid";
+    }
+
+    /**
+     * Return the occupancy of every room of a day as JSON, one 48-bit bitmap per room
+     *
+     * @param date The specific date to show the occupancy for
+     * @return Occupancy bitmaps of all rooms
+     */
+    @GetMapping(path = "{date}/grid", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    DayGrid dayGridJson(@DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @PathVariable("date") LocalDate date) {
+        return roomService.findDayGrid(date);
+    }
 
 }
@@ -0,0 +1,86 @@
+package com.hendisantika.springbootreservation.controller;
+
+import com.hendisantika.springbootreservation.dto.RoomUtilization;
+import com.hendisantika.springbootreservation.dto.UtilizationHeatmap;
+import com.hendisantika.springbootreservation.service.RoomUtilizationService;
+import com.hendisantika.springbootreservation.service.UtilizationGranularity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON API of the room utilization reports, answered from the per room-day aggregates; administrators
+ * only.
+ */
+@RestController
+@RequestMapping("api/utilization")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class UtilizationApiController {
+
+    private final RoomUtilizationService utilizationService;
+
+    /**
+     * Return the utilization of every room per day, week or month
+     * <p>
+     * GET /api/utilization?from=2026-01-01&amp;to=2026-03-31&amp;granularity=week
+     *
+     * @param from        First date (format: yyyy-MM-dd)
+     * @param to          Last date (format: yyyy-MM-dd)
+     * @param granularity day (default), week or month; 400 for anything else
+     * @param roomId      Only this meeting room
+     * @return One row per room and period
+     */
+    @GetMapping
+    List<RoomUtilization> utilization(
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @RequestParam("from") LocalDate from,
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @RequestParam("to") LocalDate to,
+            @RequestParam(name = "granularity", defaultValue = "day") UtilizationGranularity granularity,
+            @RequestParam(name = "roomId", required = false) Integer roomId) {
+        return utilizationService.findUtilization(from, to, granularity, roomId);
+    }
+
+    /**
+     * Return how often each half-hour slot of each weekday was reserved
+     * <p>
+     * GET /api/utilization/heatmap?from=2026-01-01&amp;to=2026-03-31
+     *
+     * @param from   First date (format: yyyy-MM-dd)
+     * @param to     Last date (format: yyyy-MM-dd)
+     * @param roomId Only this meeting room
+     * @return Counts per weekday and slot
+     */
+    @GetMapping(path = "heatmap")
+    UtilizationHeatmap heatmap(
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @RequestParam("from") LocalDate from,
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @RequestParam("to") LocalDate to,
+            @RequestParam(name = "roomId", required = false) Integer roomId) {
+        return utilizationService.findHeatmap(from, to, roomId);
+    }
+
+    /**
+     * Recompute the aggregates of a date range from the reservations
+     * <p>
+     * POST /api/utilization/rebuild?from=2025-01-01&amp;to=2026-12-31
+     *
+     * @param from First date (format: yyyy-MM-dd)
+     * @param to   Last date (format: yyyy-MM-dd)
+     * @return Number of room-days with reservations in the range
+     */
+    @PostMapping(path = "rebuild")
+    Map<String, Long> rebuild(
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @RequestParam("from") LocalDate from,
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @RequestParam("to") LocalDate to) {
+        return Map.of("roomDays", utilizationService.rebuild(from, to));
+    }
+
+}
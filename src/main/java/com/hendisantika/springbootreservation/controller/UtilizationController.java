@@ -0,0 +1,63 @@
+package com.hendisantika.springbootreservation.controller;
+
+import com.hendisantika.springbootreservation.domain.TimeSlots;
+import com.hendisantika.springbootreservation.service.RoomUtilizationService;
+import com.hendisantika.springbootreservation.service.UtilizationGranularity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Controller for the room utilization report page; administrators only
+ */
+@Controller
+@RequestMapping("utilization")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class UtilizationController {
+
+    private final RoomUtilizationService utilizationService;
+
+    /**
+     * Display the utilization per room and period and a peak-hour heatmap(/utilization)
+     *
+     * @param from        First date (format: yyyy-MM-dd), 30 days ago by default
+     * @param to          Last date (format: yyyy-MM-dd), today by default
+     * @param granularity day, week (default) or month
+     * @param roomId      Only this meeting room
+     * @param model       Spring MVC model
+     * @return The name of the Thymeleaf template to render
+     */
+    @GetMapping
+    String report(@DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @RequestParam(name = "from", required = false) LocalDate from,
+                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @RequestParam(name = "to", required = false) LocalDate to,
+                  @RequestParam(name = "granularity", defaultValue = "week") UtilizationGranularity granularity,
+                  @RequestParam(name = "roomId", required = false) Integer roomId,
+                  Model model) {
+        LocalDate lastDate = to != null ? to : LocalDate.now();
+        LocalDate firstDate = from != null ? from : lastDate.minusDays(30);
+
+        model.addAttribute("from", firstDate);
+        model.addAttribute("to", lastDate);
+        model.addAttribute("granularity", granularity);
+        model.addAttribute("granularities", UtilizationGranularity.values());
+        model.addAttribute("roomId", roomId);
+        model.addAttribute("rows", utilizationService.findUtilization(firstDate, lastDate, granularity, roomId));
+        model.addAttribute("heatmap", utilizationService.findHeatmap(firstDate, lastDate, roomId));
+        model.addAttribute("weekdays", List.of(DayOfWeek.values()));
+        model.addAttribute("slots", IntStream.range(0, TimeSlots.SLOTS_PER_DAY).boxed().toList());
+
+        return "utilization/report";
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.hendisantika.springbootreservation.controller;
+
+import com.hendisantika.springbootreservation.service.UtilizationGranularity;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Binds the {@code granularity} request parameter case-insensitively, so {@code granularity=week}
+ * works as the links of the report page send it. Any other value fails the binding with 400.
+ */
+@Component
+class UtilizationGranularityConverter implements Converter<String, UtilizationGranularity> {
+
+    @Override
+    public UtilizationGranularity convert(String source) {
+        return UtilizationGranularity.valueOf(source.trim().toUpperCase(Locale.ROOT));
+    }
+
+}
@@ -1,10 +1,15 @@
 package com.hendisantika.springbootreservation.domain;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import lombok.Data;
+import jakarta.persistence.SequenceGenerator;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.io.Serializable;
 
@@ -18,12 +23,32 @@ import java.io.Serializable;
  * Time: 04:24
  */
 @Entity
-@Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "meetingRoom")
+@Getter
+@Setter
 public class MeetingRoom implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meeting_room_id_seq")
+    @SequenceGenerator(name = "meeting_room_id_seq", sequenceName = "meeting_room_id_seq", allocationSize = 50)
     private Integer roomId;
 
     private String roomName;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof MeetingRoom other && roomId != null && roomId.equals(other.getRoomId());
+    }
+
+    @Override
+    public int hashCode() {
+        //Rooms get their id from the sequence on persist; like every entity,
+        //the hash ignores the id so it never changes
+        return MeetingRoom.class.hashCode();
+    }
+
 }
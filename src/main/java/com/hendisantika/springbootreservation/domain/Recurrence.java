@@ -0,0 +1,29 @@
+package com.hendisantika.springbootreservation.domain;
+
+import java.time.LocalDate;
+import java.time.Period;
+
+/**
+ * Interval between the occurrences of a {@link ReservationSeries}.
+ */
+public enum Recurrence {
+    DAILY(Period.ofDays(1)), WEEKLY(Period.ofWeeks(1));
+
+    private final Period step;
+
+    Recurrence(Period step) {
+        this.step = step;
+    }
+
+    /**
+     * Return the date of the n-th occurrence.
+     *
+     * @param firstDate date of the first occurrence
+     * @param n         zero based index of the occurrence
+     * @return date of the occurrence
+     */
+    public LocalDate occurrence(LocalDate firstDate, int n) {
+        return firstDate.plus(step.multipliedBy(n));
+    }
+
+}
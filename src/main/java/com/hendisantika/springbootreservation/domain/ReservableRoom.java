@@ -1,11 +1,16 @@
 package com.hendisantika.springbootreservation.domain;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.EmbeddedId;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.MapsId;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.io.Serializable;
 
@@ -19,14 +24,33 @@ import java.io.Serializable;
  * Time: 04:25
  */
 @Entity
-@Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "reservableRoom")
+@Getter
+@Setter
 public class ReservableRoom implements Serializable {
 
     @EmbeddedId
     private ReservableRoomId reservableRoomId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "room_id", insertable = false, updatable = false)
     @MapsId("roomId")
     private MeetingRoom meetingRoom;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof ReservableRoom other && reservableRoomId != null && reservableRoomId.equals(other.getReservableRoomId());
+    }
+
+    @Override
+    public int hashCode() {
+        //The embedded id is mutable and set after construction, so the hash is
+        //per class as for the other entities
+        return ReservableRoom.class.hashCode();
+    }
+
 }
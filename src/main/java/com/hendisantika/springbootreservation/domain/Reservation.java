@@ -1,13 +1,16 @@
 package com.hendisantika.springbootreservation.domain;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinColumns;
 import jakarta.persistence.ManyToOne;
-import lombok.Data;
+import jakarta.persistence.SequenceGenerator;
+import lombok.Getter;
+import lombok.Setter;
 
 import java.io.Serializable;
 import java.time.LocalTime;
@@ -23,25 +26,31 @@ import java.util.Objects;
  * Time: 04:28
  */
 @Entity
-@Data
+@Getter
+@Setter
 public class Reservation implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_id_seq")
+    @SequenceGenerator(name = "reservation_id_seq", sequenceName = "reservation_id_seq", allocationSize = 50)
     private Integer reservationId;
 
     private LocalTime startTime;
 
     private LocalTime endTime;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumns({@JoinColumn(name = "reserved_date"), @JoinColumn(name = "room_id")})
     private ReservableRoom reservableRoom;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "series_id")
+    private ReservationSeries series;
+
 
     public boolean overlap(Reservation target) {
 
@@ -61,5 +70,31 @@ public class Reservation implements Serializable {
 
     }
 
+    /**
+     * Return the half-hour slots covered by this reservation as a bitmap.
+     *
+     * @return bitmap as defined by {@link TimeSlots#mask}
+     */
+    public long slotMask() {
+        return TimeSlots.mask(startTime, endTime);
+    }
+
+    /**
+     * Entities are equal when they have the same id. Other fields and lazy associations are not
+     * compared, so equality neither initializes proxies nor changes while the entity is edited.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof Reservation other && reservationId != null && reservationId.equals(other.getReservationId());
+    }
+
+    @Override
+    public int hashCode() {
+        //The id is only assigned on persist, so the hash must not depend on it
+        return Reservation.class.hashCode();
+    }
 
 }
@@ -0,0 +1,66 @@
+package com.hendisantika.springbootreservation.domain;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * A recurring booking, e.g. every Tuesday 10:00-11:00 for 12 weeks.
+ * Each occurrence that could be booked is stored as a {@link Reservation} pointing to its series.
+ */
+@Entity
+@Getter
+@Setter
+public class ReservationSeries implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_series_id_seq")
+    @SequenceGenerator(name = "reservation_series_id_seq", sequenceName = "reservation_series_id_seq", allocationSize = 50)
+    private Integer seriesId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "room_id")
+    private MeetingRoom meetingRoom;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    private Recurrence recurrence;
+
+    private LocalDate firstDate;
+
+    private Integer occurrences;
+
+    private LocalTime startTime;
+
+    private LocalTime endTime;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof ReservationSeries other && seriesId != null && seriesId.equals(other.getSeriesId());
+    }
+
+    @Override
+    public int hashCode() {
+        return ReservationSeries.class.hashCode();
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.hendisantika.springbootreservation.domain;
+
+import java.time.LocalTime;
+
+/**
+ * Maps reservation times onto the 48 half-hour slots of a day.
+ * <p>
+ * Slot {@code n} covers {@code [n * 30min, (n + 1) * 30min)}, the same grid that
+ * {@code ThirtyMinutesUnit} enforces on the reservation form. A contiguous range of
+ * slots is represented as a bitmap in a {@code long}, so occupancy of a whole room-day
+ * fits into a single 64-bit word.
+ */
+public final class TimeSlots {
+
+    public static final int SLOT_MINUTES = 30;
+
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    private static final int SLOT_SECONDS = SLOT_MINUTES * 60;
+
+    private TimeSlots() {
+    }
+
+    /**
+     * Return the index of the slot that starts at or contains the given time.
+     *
+     * @param time time of day
+     * @return slot index between 0 and 47
+     */
+    public static int slotOf(LocalTime time) {
+        return time.toSecondOfDay() / SLOT_SECONDS;
+    }
+
+    /**
+     * Return the start time of a slot.
+     *
+     * @param slot slot index between 0 and 47
+     * @return time of day the slot starts at
+     */
+    public static LocalTime startOf(int slot) {
+        return LocalTime.ofSecondOfDay((long) slot * SLOT_SECONDS);
+    }
+
+    /**
+     * Return the bitmap of the slots covered by {@code [startTime, endTime)}.
+     *
+     * @param startTime inclusive start
+     * @param endTime   exclusive end, must be after {@code startTime}
+     * @return bitmap with one bit set per covered slot
+     */
+    public static long mask(LocalTime startTime, LocalTime endTime) {
+        return (1L << slotOf(endTime)) - (1L << slotOf(startTime));
+    }
+
+    /**
+     * Return whether the given slot is set in a bitmap.
+     *
+     * @param bitmap occupancy bitmap
+     * @param slot   slot index between 0 and 47
+     * @return {@code true} when the slot is occupied
+     */
+    public static boolean isSet(long bitmap, int slot) {
+        return (bitmap & (1L << slot)) != 0;
+    }
+
+}
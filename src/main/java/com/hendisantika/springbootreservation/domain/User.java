@@ -5,7 +5,10 @@ import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
 
 /**
  * Created by IntelliJ IDEA.
@@ -18,8 +21,9 @@ import lombok.Data;
  */
 @Entity
 @Table(name = "users")
-@Data
-public class User {
+@Getter
+@Setter
+public class User implements Serializable {
 
     @Id
     private String userId;
@@ -33,4 +37,19 @@ public class User {
     @Enumerated(EnumType.STRING)
     private RoleName roleName;
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof User other && userId != null && userId.equals(other.getUserId());
+    }
+
+    @Override
+    public int hashCode() {
+        //Not derived from userId: it is set after construction, and a hash that
+        //changed would lose the user in hash-based collections
+        return User.class.hashCode();
+    }
+
 }
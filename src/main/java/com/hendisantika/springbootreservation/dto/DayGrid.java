@@ -0,0 +1,21 @@
+package com.hendisantika.springbootreservation.dto;
+
+import com.hendisantika.springbootreservation.domain.TimeSlots;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Occupancy of every reservable room of a day.
+ *
+ * @param date        reservation date
+ * @param slotMinutes length of one slot of the occupancy bitmaps
+ * @param rooms       rooms ordered by id
+ */
+public record DayGrid(LocalDate date, int slotMinutes, List<RoomOccupancy> rooms) {
+
+    public DayGrid(LocalDate date, List<RoomOccupancy> rooms) {
+        this(date, TimeSlots.SLOT_MINUTES, rooms);
+    }
+
+}
@@ -0,0 +1,10 @@
+package com.hendisantika.springbootreservation.dto;
+
+/**
+ * A line of an import that was not stored.
+ *
+ * @param line   line number in the uploaded file, starting at 1
+ * @param reason why the line was rejected
+ */
+public record ImportRejection(long line, String reason) {
+}
@@ -0,0 +1,13 @@
+package com.hendisantika.springbootreservation.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. Only the first rejections are listed, the count covers all of them.
+ *
+ * @param imported   number of reservations stored
+ * @param rejected   number of lines not stored
+ * @param rejections the first rejected lines with their reasons
+ */
+public record ImportResult(long imported, long rejected, List<ImportRejection> rejections) {
+}
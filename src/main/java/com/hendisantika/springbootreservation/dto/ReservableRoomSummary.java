@@ -0,0 +1,21 @@
+package com.hendisantika.springbootreservation.dto;
+
+import com.hendisantika.springbootreservation.domain.TimeSlots;
+
+import java.time.LocalDate;
+
+/**
+ * Reservable room-day as returned to JSON clients.
+ *
+ * @param roomId       meeting room id
+ * @param roomName     meeting room name
+ * @param reservedDate reservation date
+ * @param occupancy    bit {@code n} is set when slot {@code n} is reserved, see {@link TimeSlots}
+ */
+public record ReservableRoomSummary(Integer roomId, String roomName, LocalDate reservedDate, long occupancy) {
+
+    public static ReservableRoomSummary of(LocalDate reservedDate, RoomOccupancy room) {
+        return new ReservableRoomSummary(room.roomId(), room.roomName(), reservedDate, room.occupancy());
+    }
+
+}
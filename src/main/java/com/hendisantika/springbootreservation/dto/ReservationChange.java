@@ -0,0 +1,22 @@
+package com.hendisantika.springbootreservation.dto;
+
+import com.hendisantika.springbootreservation.domain.Reservation;
+
+/**
+ * A reservation that was made or cancelled, published after commit and streamed to subscribed screens.
+ */
+public record ReservationChange(Type type, ReservationSummary reservation) {
+
+    public static ReservationChange reserved(Reservation reservation) {
+        return new ReservationChange(Type.RESERVED, ReservationSummary.of(reservation));
+    }
+
+    public static ReservationChange cancelled(ReservationSummary reservation) {
+        return new ReservationChange(Type.CANCELLED, reservation);
+    }
+
+    public enum Type {
+        RESERVED, CANCELLED
+    }
+
+}
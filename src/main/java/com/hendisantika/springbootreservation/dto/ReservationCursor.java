@@ -0,0 +1,45 @@
+package com.hendisantika.springbootreservation.dto;
+
+import com.hendisantika.springbootreservation.exception.InvalidPageRequestException;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Position in a reservation history ordered by date, start time and id. A page continues with the rows
+ * after the cursor, so it is found by an index seek however far the user has paged.
+ * <p>
+ * The text form is {@code yyyy-MM-dd_HH:mm_id}, e.g. {@code 2026-10-17_09:30_151}.
+ *
+ * @param reservedDate  date of the last row of the previous page
+ * @param startTime     start time of the last row of the previous page
+ * @param reservationId id of the last row of the previous page
+ */
+public record ReservationCursor(LocalDate reservedDate, LocalTime startTime, Integer reservationId) {
+
+    /**
+     * Parse the text form of a cursor.
+     *
+     * @param text cursor as returned by {@link #toString()}
+     * @return the cursor
+     * @throws InvalidPageRequestException when the text is not a cursor
+     */
+    public static ReservationCursor parse(String text) {
+        String[] parts = text.split("_");
+        if (parts.length != 3) {
+            throw new InvalidPageRequestException("Invalid cursor: " + text);
+        }
+        try {
+            return new ReservationCursor(LocalDate.parse(parts[0]), LocalTime.parse(parts[1]), Integer.valueOf(parts[2]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new InvalidPageRequestException("Invalid cursor: " + text, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return reservedDate + "_" + startTime + "_" + reservationId;
+    }
+
+}
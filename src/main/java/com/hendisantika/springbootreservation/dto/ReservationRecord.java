@@ -0,0 +1,12 @@
+package com.hendisantika.springbootreservation.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Flat reservation row of an export or import, one line per reservation.
+ * The id is written on export and ignored on import, where new ids are allocated.
+ */
+public record ReservationRecord(Integer reservationId, LocalDate reservedDate, Integer roomId,
+                                LocalTime startTime, LocalTime endTime, String userId) {
+}
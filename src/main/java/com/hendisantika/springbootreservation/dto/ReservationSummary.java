@@ -0,0 +1,23 @@
+package com.hendisantika.springbootreservation.dto;
+
+import com.hendisantika.springbootreservation.domain.Reservation;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Reservation as returned to JSON clients, without user and room entities.
+ */
+public record ReservationSummary(Integer reservationId, Integer roomId, LocalDate reservedDate,
+                                 LocalTime startTime, LocalTime endTime) {
+
+    public static ReservationSummary of(Reservation reservation) {
+        return new ReservationSummary(
+                reservation.getReservationId(),
+                reservation.getReservableRoom().getReservableRoomId().getRoomId(),
+                reservation.getReservableRoom().getReservableRoomId().getReservedDate(),
+                reservation.getStartTime(),
+                reservation.getEndTime());
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.hendisantika.springbootreservation.dto;
+
+import java.time.LocalTime;
+
+/**
+ * Read-side row of a room-day's reservation list: the times and the display name of the user,
+ * without loading the user entity and its password hash or the room entities.
+ */
+public record ReservationView(Integer reservationId, LocalTime startTime, LocalTime endTime,
+                              String userId, String firstName, String lastName) {
+}
@@ -0,0 +1,22 @@
+package com.hendisantika.springbootreservation.dto;
+
+import com.hendisantika.springbootreservation.domain.TimeSlots;
+
+/**
+ * Occupancy of one room for one day as a bitmap of its 48 half-hour slots.
+ *
+ * @param roomId    meeting room id
+ * @param roomName  meeting room name
+ * @param occupancy bit {@code n} is set when slot {@code n} is reserved, see {@link TimeSlots}
+ */
+public record RoomOccupancy(Integer roomId, String roomName, long occupancy) {
+
+    public boolean isOccupied(int slot) {
+        return TimeSlots.isSet(occupancy, slot);
+    }
+
+    public int getFreeSlots() {
+        return TimeSlots.SLOTS_PER_DAY - Long.bitCount(occupancy);
+    }
+
+}
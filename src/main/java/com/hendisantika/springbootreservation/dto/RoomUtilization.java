@@ -0,0 +1,17 @@
+package com.hendisantika.springbootreservation.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Utilization of one room in one period (day, week or month).
+ *
+ * @param roomId        meeting room id
+ * @param roomName      meeting room name
+ * @param periodStart   first day of the period
+ * @param reservations  number of reservations
+ * @param bookedMinutes reserved time in minutes
+ * @param occupancy     share of the period's time that was reserved, between 0 and 1
+ */
+public record RoomUtilization(Integer roomId, String roomName, LocalDate periodStart, long reservations,
+                              long bookedMinutes, double occupancy) {
+}
@@ -0,0 +1,17 @@
+package com.hendisantika.springbootreservation.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Outcome of booking a reservation series. Occurrences that collided with an existing reservation or
+ * fell on a date the room can not be reserved are listed instead of failing the whole series.
+ *
+ * @param seriesId         id of the saved series, {@code null} when no occurrence could be reserved
+ * @param reservedDates    dates that were reserved
+ * @param collidedDates    dates with an overlapping reservation
+ * @param unavailableDates dates the room is not reservable on
+ */
+public record SeriesReservationResult(Integer seriesId, List<LocalDate> reservedDates,
+                                      List<LocalDate> collidedDates, List<LocalDate> unavailableDates) {
+}
@@ -0,0 +1,12 @@
+package com.hendisantika.springbootreservation.dto;
+
+import java.util.List;
+
+/**
+ * One page of a user's reservation history.
+ *
+ * @param reservations rows of the page in date and time order
+ * @param next         cursor of the following page in text form, {@code null} on the last page
+ */
+public record UserReservationPage(List<UserReservationView> reservations, String next) {
+}
@@ -0,0 +1,21 @@
+package com.hendisantika.springbootreservation.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Row of a user's reservation history: date, room and times, without loading the entities.
+ */
+public record UserReservationView(Integer reservationId, LocalDate reservedDate, Integer roomId, String roomName,
+                                  LocalTime startTime, LocalTime endTime) {
+
+    /**
+     * Return the position of this row, to continue the history after it.
+     *
+     * @return keyset cursor of this row
+     */
+    public ReservationCursor cursor() {
+        return new ReservationCursor(reservedDate, startTime, reservationId);
+    }
+
+}
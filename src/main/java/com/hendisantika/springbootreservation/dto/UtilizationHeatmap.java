@@ -0,0 +1,31 @@
+package com.hendisantika.springbootreservation.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Number of reserved room-days per weekday and half-hour slot over a date range.
+ *
+ * @param from   first date
+ * @param to     last date
+ * @param roomId the room, or {@code null} for all rooms
+ * @param counts seven rows from Monday to Sunday, each with the counts of the 48 slots of the day
+ */
+public record UtilizationHeatmap(LocalDate from, LocalDate to, Integer roomId, List<long[]> counts) {
+
+    /**
+     * Return the largest count, to scale a rendering of the heatmap.
+     *
+     * @return the highest count of any weekday and slot
+     */
+    public long getPeak() {
+        long peak = 0;
+        for (long[] day : counts) {
+            for (long count : day) {
+                peak = Math.max(peak, count);
+            }
+        }
+        return peak;
+    }
+
+}
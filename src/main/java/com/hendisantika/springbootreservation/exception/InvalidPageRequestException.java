@@ -0,0 +1,17 @@
+package com.hendisantika.springbootreservation.exception;
+
+/**
+ * Thrown when a page of a reservation history is requested with a malformed cursor or an
+ * unsupported page size.
+ */
+public class InvalidPageRequestException extends RuntimeException {
+
+    public InvalidPageRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidPageRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
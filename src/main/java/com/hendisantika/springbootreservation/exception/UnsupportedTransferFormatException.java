@@ -0,0 +1,13 @@
+package com.hendisantika.springbootreservation.exception;
+
+/**
+ * Thrown when reservations are exported or imported in a format that is not supported, or when an
+ * imported CSV file lacks a required column.
+ */
+public class UnsupportedTransferFormatException extends RuntimeException {
+
+    public UnsupportedTransferFormatException(String message) {
+        super(message);
+    }
+
+}
@@ -3,6 +3,8 @@ package com.hendisantika.springbootreservation.repository;
 import com.hendisantika.springbootreservation.domain.ReservableRoom;
 import com.hendisantika.springbootreservation.domain.ReservableRoomId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -18,6 +20,33 @@ import java.util.List;
  */
 public interface ReservableRoomRepository extends JpaRepository<ReservableRoom, ReservableRoomId> {
 
-    List<ReservableRoom> findByReservableRoomIdReservedDateOrderByReservableRoomIdRoomIdAsc(LocalDate reservedDate);
+    String OCCUPANCY_ROWS = "SELECT rr.room_id AS \"roomId\", m.room_name AS \"roomName\", rr.occupancy AS \"occupancy\" "
+            + "FROM reservable_room rr "
+            + "JOIN meeting_room m ON m.room_id = rr.room_id "
+            + "WHERE rr.reserved_date = :date ";
 
-}
\ No newline at end of file
+    /**
+     * Return the occupancy bitmap of every room reservable on the date, read from
+     * {@code reservable_room} without touching {@code reservation}.
+     */
+    @Query(value = OCCUPANCY_ROWS + "ORDER BY rr.room_id", nativeQuery = true)
+    List<OccupancyRow> findOccupancy(@Param("date") LocalDate date);
+
+    /**
+     * Return the rooms reservable on the date that have none of the given slots reserved, answered
+     * from the occupancy bitmaps alone.
+     */
+    @Query(value = OCCUPANCY_ROWS + "AND rr.occupancy & :mask = 0 ORDER BY rr.room_id", nativeQuery = true)
+    List<OccupancyRow> findFreeRooms(@Param("date") LocalDate date, @Param("mask") long mask);
+
+    interface OccupancyRow {
+
+        Integer getRoomId();
+
+        String getRoomName();
+
+        Long getOccupancy();
+
+    }
+
+}
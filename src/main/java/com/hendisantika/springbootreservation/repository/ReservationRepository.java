@@ -2,8 +2,16 @@ package com.hendisantika.springbootreservation.repository;
 
 import com.hendisantika.springbootreservation.domain.ReservableRoomId;
 import com.hendisantika.springbootreservation.domain.Reservation;
+import com.hendisantika.springbootreservation.dto.ReservationView;
+import com.hendisantika.springbootreservation.dto.UserReservationView;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 
 /**
@@ -17,7 +25,41 @@ import java.util.List;
  */
 public interface ReservationRepository extends JpaRepository<Reservation, Integer> {
 
+    @EntityGraph(attributePaths = "user")
     List<Reservation> findByReservableRoomReservableRoomIdOrderByStartTimeAsc(ReservableRoomId reservableId);
 
+    @Query("select new com.hendisantika.springbootreservation.dto.ReservationView("
+            + "r.reservationId, r.startTime, r.endTime, u.userId, u.firstName, u.lastName) "
+            + "from Reservation r join r.user u "
+            + "where r.reservableRoom.reservableRoomId = :reservableRoomId order by r.startTime")
+    List<ReservationView> findViewsByReservableRoomId(@Param("reservableRoomId") ReservableRoomId reservableRoomId);
 
-}
\ No newline at end of file
+    String USER_RESERVATION_VIEW = "select new com.hendisantika.springbootreservation.dto.UserReservationView("
+            + "r.reservationId, r.reservableRoom.reservableRoomId.reservedDate, r.reservableRoom.reservableRoomId.roomId, "
+            + "m.roomName, r.startTime, r.endTime) "
+            + "from Reservation r join MeetingRoom m on m.roomId = r.reservableRoom.reservableRoomId.roomId "
+            + "where r.user.userId = :userId ";
+
+    String USER_RESERVATION_ORDER = " order by r.reservableRoom.reservableRoomId.reservedDate, r.startTime, r.reservationId";
+
+    /**
+     * Return the first reservations of a user from a date on, in date and time order.
+     */
+    @Query(USER_RESERVATION_VIEW + "and r.reservableRoom.reservableRoomId.reservedDate >= :from" + USER_RESERVATION_ORDER)
+    List<UserReservationView> findUserReservationsFrom(@Param("userId") String userId,
+                                                       @Param("from") LocalDate from,
+                                                       Limit limit);
+
+    /**
+     * Return the reservations of a user that follow the given position in date and time order. The row
+     * value comparison lets PostgreSQL seek to the position in {@code reservation_user_history_idx}.
+     */
+    @Query(USER_RESERVATION_VIEW + "and (r.reservableRoom.reservableRoomId.reservedDate, r.startTime, r.reservationId) "
+            + "> (:reservedDate, :startTime, :reservationId)" + USER_RESERVATION_ORDER)
+    List<UserReservationView> findUserReservationsAfter(@Param("userId") String userId,
+                                                        @Param("reservedDate") LocalDate reservedDate,
+                                                        @Param("startTime") LocalTime startTime,
+                                                        @Param("reservationId") Integer reservationId,
+                                                        Limit limit);
+
+}
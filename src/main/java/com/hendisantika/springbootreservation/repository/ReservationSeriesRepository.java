@@ -0,0 +1,10 @@
+package com.hendisantika.springbootreservation.repository;
+
+import com.hendisantika.springbootreservation.domain.ReservationSeries;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository of recurring bookings.
+ */
+public interface ReservationSeriesRepository extends JpaRepository<ReservationSeries, Integer> {
+}
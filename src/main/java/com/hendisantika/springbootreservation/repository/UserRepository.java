@@ -1,7 +1,13 @@
 package com.hendisantika.springbootreservation.repository;
 
 import com.hendisantika.springbootreservation.domain.User;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
 
 /**
  * Created by IntelliJ IDEA.
@@ -13,4 +19,18 @@ import org.springframework.data.jpa.repository.JpaRepository;
  * Time: 05:23
  */
 public interface UserRepository extends JpaRepository<User, String> {
+
+    String USERS_CACHE = "users";
+
+    /**
+     * Look up a user for authentication. Results are cached briefly so that repeated logins and
+     * HTTP Basic requests do not hit the database each time.
+     */
+    @Cacheable(cacheNames = USERS_CACHE, unless = "#result == null")
+    Optional<User> findByUserId(String userId);
+
+    @Modifying
+    @Query("update User u set u.password = :password where u.userId = :userId")
+    int updatePassword(@Param("userId") String userId, @Param("password") String password);
+
 }
\ No newline at end of file
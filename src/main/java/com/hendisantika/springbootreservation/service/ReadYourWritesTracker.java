@@ -0,0 +1,165 @@
+package com.hendisantika.springbootreservation.service;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Remembers which users recently changed reservations, so that their reads go to the primary
+ * database for a while instead of a replica that may not have caught up yet.
+ * <p>
+ * The time of a write is kept per user on this node and, for writes made in a web request, in the
+ * {@value #COOKIE_NAME} cookie of the client, which expires with the window. The cookie pins the
+ * client's next reads to the primary on whichever node of the cluster serves them; the per-user
+ * entry covers clients that do not send cookies back, as long as they stay on this node. A forged
+ * cookie can only send its own reads to the primary, and only for one window.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    static final String COOKIE_NAME = "reservation-last-write";
+
+    private static final int PRUNE_THRESHOLD = 10_000;
+
+    private final ConcurrentMap<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    private final Duration window;
+
+    private final long windowMillis;
+
+    private final Clock clock;
+
+    @Autowired
+    public ReadYourWritesTracker(@Value("${reservation.datasource.replica.read-your-writes-window:5s}") Duration window) {
+        this(window, Clock.systemUTC());
+    }
+
+    ReadYourWritesTracker(Duration window, Clock clock) {
+        this.window = window;
+        this.windowMillis = window.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Record a write of the current user, effective when the current transaction commits. Must be
+     * called before the response of the current request is committed.
+     */
+    public void recordWrite() {
+        String user = currentUser();
+        if (user == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(user);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(user);
+            }
+        });
+    }
+
+    /**
+     * Return whether the current user wrote within the read-your-writes window, on this node or on
+     * any node that set the cookie sent with the current request.
+     *
+     * @return {@code true} when reads of the current user must see the primary
+     */
+    public boolean isPinnedToPrimary() {
+        String user = currentUser();
+        if (user == null) {
+            return false;
+        }
+        Long writtenAt = lastWrites.get(user);
+        if (writtenAt != null) {
+            if (!isExpired(writtenAt)) {
+                return true;
+            }
+            lastWrites.remove(user, writtenAt);
+        }
+        Long cookieWrittenAt = cookieWrittenAt();
+        //Clocks of the nodes may differ a little, so the window also bounds how far ahead a write may be
+        return cookieWrittenAt != null && !isExpired(cookieWrittenAt) && cookieWrittenAt - clock.millis() <= windowMillis;
+    }
+
+    private void record(String user) {
+        if (lastWrites.size() >= PRUNE_THRESHOLD) {
+            lastWrites.values().removeIf(this::isExpired);
+        }
+        long now = clock.millis();
+        lastWrites.put(user, now);
+        writeCookie(now);
+    }
+
+    private boolean isExpired(long writtenAt) {
+        return clock.millis() - writtenAt > windowMillis;
+    }
+
+    private void writeCookie(long writtenAt) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        HttpServletResponse response = attributes.getResponse();
+        if (response == null || response.isCommitted()) {
+            return;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE_NAME, Long.toString(writtenAt))
+                .path(StringUtils.hasLength(request.getContextPath()) ? request.getContextPath() : "/")
+                .maxAge(window)
+                .httpOnly(true)
+                .secure(request.isSecure())
+                .sameSite("Lax")
+                .build()
+                .toString());
+    }
+
+    private static Long cookieWrittenAt() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return null;
+        }
+        Cookie[] cookies = attributes.getRequest().getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.hendisantika.springbootreservation.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+/**
+ * Keeps a rolling horizon of reservable dates materialized for every meeting room.
+ * <p>
+ * Missing room-days from today up to the horizon are inserted with a single set-based
+ * {@code INSERT ... SELECT ... ON CONFLICT DO NOTHING}, so a run only adds what is missing:
+ * dates that came into the horizon and all dates of rooms added since the last run. Room-days
+ * older than the retention period are removed unless they hold reservations.
+ * <p>
+ * Runs on startup and periodically. Only one node runs at a time; the others skip the run
+ * when the transaction-scoped advisory lock is taken.
+ */
+@Slf4j
+@Component
+public class ReservableRoomGenerator {
+
+    private static final long ADVISORY_LOCK_KEY = 0x7265736572766162L;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final RoomCacheEvictor roomCacheEvictor;
+
+    private final ReservationAvailabilityIndex availabilityIndex;
+
+    private final int horizonDays;
+
+    private final int retentionDays;
+
+    public ReservableRoomGenerator(JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   RoomCacheEvictor roomCacheEvictor,
+                                   ReservationAvailabilityIndex availabilityIndex,
+                                   @Value("${reservation.reservable-dates.horizon-days:70}") int horizonDays,
+                                   @Value("${reservation.reservable-dates.retention-days:7}") int retentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.roomCacheEvictor = roomCacheEvictor;
+        this.availabilityIndex = availabilityIndex;
+        this.horizonDays = horizonDays;
+        this.retentionDays = retentionDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        generate();
+    }
+
+    /**
+     * Materialize the horizon and prune expired room-days.
+     */
+    @Scheduled(fixedDelayString = "${reservation.reservable-dates.interval:1h}",
+            initialDelayString = "${reservation.reservable-dates.interval:1h}")
+    public void generate() {
+        LocalDate today = LocalDate.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class,
+                    ADVISORY_LOCK_KEY))) {
+                log.debug("Reservable dates are being generated by another node");
+                return;
+            }
+
+            int added = jdbcTemplate.update("""
+                    INSERT INTO reservable_room (reserved_date, room_id)
+                    SELECT d.day::date, m.room_id
+                      FROM generate_series(?::date, ?::date, interval '1 day') AS d(day)
+                     CROSS JOIN meeting_room m
+                    ON CONFLICT DO NOTHING""", today, today.plusDays(horizonDays));
+
+            int removed = jdbcTemplate.update("""
+                    DELETE FROM reservable_room rr
+                     WHERE rr.reserved_date < ?
+                       AND NOT EXISTS (SELECT 1
+                                         FROM reservation r
+                                        WHERE r.reserved_date = rr.reserved_date
+                                          AND r.room_id = rr.room_id)""", today.minusDays(retentionDays));
+
+            if (added > 0 || removed > 0) {
+                roomCacheEvictor.evictReservableRooms();
+                log.info("Reservable dates up to {}: added {}, removed {} room-days", today.plusDays(horizonDays), added, removed);
+            }
+        });
+
+        //Every node drops its own index entries of past days
+        availabilityIndex.evictBefore(today);
+    }
+
+}
@@ -0,0 +1,219 @@
+package com.hendisantika.springbootreservation.service;
+
+import com.hendisantika.springbootreservation.domain.ReservableRoomId;
+import com.hendisantika.springbootreservation.domain.TimeSlots;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory availability index of reserved half-hour slots per room and date.
+ * <p>
+ * Every reservable room-day is represented by a 48-bit bitmap (see {@link TimeSlots}) so a
+ * conflict check is a single {@code AND} without a round-trip to the database. Entries are warmed
+ * for the next days on startup and loaded from {@link RoomDayOccupancy} on lookups and refreshes;
+ * claims never load, so a booking does not pay a query for a room-day the index has not seen. Claims
+ * are applied immediately and rolled back when the surrounding transaction does not commit;
+ * releases are applied once the cancelling transaction has committed. At most
+ * {@code reservation.availability-index.max-room-days} entries are kept, past days are dropped
+ * first.
+ * <p>
+ * The index only sees bookings made through this node, so a reported conflict should be confirmed
+ * with {@link #refresh(ReservableRoomId)} before it is shown to the user. The persisted occupancy
+ * and the exclusion constraint on {@code reservation} stay the authority for bookings that the
+ * index has not seen.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReservationAvailabilityIndex {
+
+    private final ConcurrentMap<ReservableRoomId, AtomicReference<RoomDay>> slots = new ConcurrentHashMap<>();
+
+    private final RoomDayOccupancy occupancy;
+
+    @Value("${reservation.availability-index.warm-days:7}")
+    private int warmDays;
+
+    @Value("${reservation.availability-index.max-room-days:20000}")
+    private int maxRoomDays;
+
+    /**
+     * Load the bitmaps of the upcoming days with a single query.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        LocalDate today = LocalDate.now();
+        Map<ReservableRoomId, Long> bitmaps = occupancy.findBetween(today, today.plusDays(warmDays));
+        bitmaps.forEach((id, bitmap) -> slots.putIfAbsent(id, new AtomicReference<>(new RoomDay(bitmap, 0L))));
+        trim();
+        log.info("Warmed availability index with {} room-days", bitmaps.size());
+    }
+
+    /**
+     * Return whether any of the given slots is already reserved.
+     *
+     * @param reservableRoomId room and date
+     * @param mask             slots to check
+     * @return {@code true} when at least one slot is taken
+     */
+    public boolean isReserved(ReservableRoomId reservableRoomId, long mask) {
+        return (bitsOf(reservableRoomId).get().bits() & mask) != 0;
+    }
+
+    /**
+     * Atomically mark the given slots as reserved if none of them is taken yet.
+     * When called inside a transaction the claim is released again on rollback.
+     * A room-day that is not loaded is neither loaded nor claimed; the database decides for it.
+     *
+     * @param reservableRoomId room and date
+     * @param mask             slots to reserve
+     * @return {@code false} when at least one slot is known to be taken
+     */
+    public boolean tryClaim(ReservableRoomId reservableRoomId, long mask) {
+        AtomicReference<RoomDay> bits = slots.get(reservableRoomId);
+        if (bits == null) {
+            return true;
+        }
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        RoomDay current;
+        do {
+            current = bits.get();
+            if ((current.bits() & mask) != 0) {
+                return false;
+            }
+        } while (!bits.compareAndSet(current, new RoomDay(current.bits() | mask,
+                inTransaction ? current.claimed() | mask : current.claimed())));
+
+        if (inTransaction) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    // Settle on the claimed entry itself; the key may have been evicted meanwhile
+                    boolean committed = status == STATUS_COMMITTED;
+                    bits.updateAndGet(day -> new RoomDay(committed ? day.bits() : day.bits() & ~mask,
+                            day.claimed() & ~mask));
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Mark the given slots as free once the current transaction has committed.
+     *
+     * @param reservableRoomId room and date
+     * @param mask             slots to release
+     */
+    public void releaseAfterCommit(ReservableRoomId reservableRoomId, long mask) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(reservableRoomId, mask);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release(reservableRoomId, mask);
+            }
+        });
+    }
+
+    /**
+     * Reload a room-day from the database, e.g. after a conflict that may be caused by a
+     * cancellation on another node. Claims of this node that have not committed yet are kept.
+     *
+     * @param reservableRoomId room and date
+     */
+    public void refresh(ReservableRoomId reservableRoomId) {
+        long loaded = load(reservableRoomId);
+        AtomicReference<RoomDay> bits = slots.computeIfAbsent(reservableRoomId,
+                id -> new AtomicReference<>(new RoomDay(loaded, 0L)));
+        RoomDay current;
+        do {
+            current = bits.get();
+        } while (!bits.compareAndSet(current, new RoomDay(loaded | current.claimed(), current.claimed())));
+    }
+
+    /**
+     * Forget a room-day so that it is reloaded from the database on next use.
+     *
+     * @param reservableRoomId room and date
+     */
+    public void invalidate(ReservableRoomId reservableRoomId) {
+        slots.remove(reservableRoomId);
+    }
+
+    /**
+     * Drop all room-days before the given date.
+     *
+     * @param date first date to keep
+     */
+    public void evictBefore(LocalDate date) {
+        slots.keySet().removeIf(id -> id.getReservedDate().isBefore(date));
+    }
+
+    private void release(ReservableRoomId reservableRoomId, long mask) {
+        AtomicReference<RoomDay> bits = slots.get(reservableRoomId);
+        if (bits != null) {
+            bits.updateAndGet(day -> new RoomDay(day.bits() & ~mask, day.claimed()));
+        }
+    }
+
+    private AtomicReference<RoomDay> bitsOf(ReservableRoomId reservableRoomId) {
+        AtomicReference<RoomDay> bits = slots.get(reservableRoomId);
+        if (bits != null) {
+            return bits;
+        }
+        // Load outside of the map so a slow query does not block other keys of the same bin
+        AtomicReference<RoomDay> loaded = new AtomicReference<>(new RoomDay(load(reservableRoomId), 0L));
+        bits = slots.putIfAbsent(reservableRoomId, loaded);
+        if (bits != null) {
+            return bits;
+        }
+        trim();
+        return loaded;
+    }
+
+    private long load(ReservableRoomId reservableRoomId) {
+        //Room-days that can not be reserved are left to the database to reject
+        Long bitmap = occupancy.find(reservableRoomId);
+        return bitmap != null ? bitmap : 0L;
+    }
+
+    /**
+     * Keep the index within its bound: drop past days, then idle room-days. An evicted
+     * room-day is simply reloaded on next use, in-flight claims settle on their own entry.
+     */
+    private void trim() {
+        if (slots.size() <= maxRoomDays) {
+            return;
+        }
+        evictBefore(LocalDate.now());
+        Iterator<Map.Entry<ReservableRoomId, AtomicReference<RoomDay>>> it = slots.entrySet().iterator();
+        while (slots.size() > maxRoomDays && it.hasNext()) {
+            if (it.next().getValue().get().claimed() == 0L) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Reserved slots of a room-day and the part of them claimed by transactions of this node
+     * that have not completed yet.
+     */
+    private record RoomDay(long bits, long claimed) {
+    }
+
+}
@@ -0,0 +1,141 @@
+package com.hendisantika.springbootreservation.service;
+
+import com.hendisantika.springbootreservation.dto.ReservationChange;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Feeds the reservation changes committed on any node of the cluster to the
+ * {@link ReservationEventBroadcaster} of this node.
+ * <p>
+ * Triggers on {@code reservation} announce every committed insert and delete with a PostgreSQL
+ * {@code NOTIFY} on {@value #CHANNEL}, from bookings, cancellations and imports alike, and without an
+ * extra round-trip. This relay keeps one connection of the primary pool listening on the channel
+ * from a virtual thread. Notifications sent while that connection is down are lost, so once it is
+ * re-established every subscriber is asked to reload.
+ */
+@Slf4j
+@Component
+public class ReservationChangeRelay implements SmartLifecycle {
+
+    static final String CHANNEL = "reservation_change";
+
+    private static final int POLL_MILLIS = 1000;
+
+    private final DataSource dataSource;
+
+    private final ReservationEventBroadcaster broadcaster;
+
+    private final JsonMapper jsonMapper;
+
+    private final Duration retryInterval;
+
+    private volatile boolean running;
+
+    public ReservationChangeRelay(DataSource dataSource,
+                                  ReservationEventBroadcaster broadcaster,
+                                  JsonMapper jsonMapper,
+                                  @Value("${reservation.events.relay-retry-interval:5s}") Duration retryInterval) {
+        this.dataSource = dataSource;
+        this.broadcaster = broadcaster;
+        this.jsonMapper = jsonMapper;
+        this.retryInterval = retryInterval;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        Thread.ofVirtual().name("reservation-change-relay").start(this::listen);
+    }
+
+    @Override
+    public void stop() {
+        //The listener returns its connection within one poll
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        boolean lost = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (lost) {
+                    broadcaster.resyncAll();
+                    lost = false;
+                }
+                PGConnection listener = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = listener.getNotifications(POLL_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Lost reservation change notifications, retrying in {}: {}", retryInterval, e.getMessage());
+                    lost = true;
+                    pause();
+                }
+            }
+        }
+    }
+
+    void receive(String payload) {
+        Notification notification;
+        try {
+            notification = jsonMapper.readValue(payload, Notification.class);
+        } catch (JacksonException e) {
+            log.warn("Unreadable reservation change notification: {}", e.getMessage());
+            broadcaster.resyncAll();
+            return;
+        }
+        if (notification.changes() != null) {
+            notification.changes().forEach(broadcaster::onChange);
+        } else if (notification.resync() != null) {
+            notification.resync().forEach(broadcaster::resync);
+        } else {
+            broadcaster.resyncAll();
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(retryInterval);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    /**
+     * Payload of a notification: the changes of one statement, or only their dates when there were
+     * too many, or neither when all subscribers have to reload.
+     */
+    record Notification(List<ReservationChange> changes, List<LocalDate> resync) {
+    }
+
+}
@@ -0,0 +1,216 @@
+package com.hendisantika.springbootreservation.service;
+
+import com.hendisantika.springbootreservation.dto.ReservationChange;
+import com.hendisantika.springbootreservation.dto.ReservationSummary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streams committed reservation changes to Server-Sent Events subscribers of a date or of a room-day.
+ * <p>
+ * Changes are fed by {@link ReservationChangeRelay}, which receives the changes committed on every
+ * node of the cluster, including this one. When changes may have been missed, the affected
+ * subscribers receive a {@code resync} event and are expected to reload the page.
+ * <p>
+ * Open streams hold no thread: the servlet request is asynchronous and events are written by
+ * short-lived virtual threads. Every subscriber has a bounded buffer. A subscriber that falls
+ * behind loses its buffered events and receives a single {@code resync} event instead, after
+ * which it is expected to reload the page. Idle streams receive a comment as heartbeat so that
+ * proxies keep them open and dead clients are detected.
+ */
+@Slf4j
+@Component
+public class ReservationEventBroadcaster {
+
+    private final ConcurrentMap<LocalDate, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Duration timeout;
+
+    private final int bufferSize;
+
+    private final Counter dropped;
+
+    public ReservationEventBroadcaster(MeterRegistry meterRegistry,
+                                       @Value("${reservation.events.timeout:30m}") Duration timeout,
+                                       @Value("${reservation.events.buffer-size:32}") int bufferSize) {
+        this.timeout = timeout;
+        this.bufferSize = bufferSize;
+        this.dropped = Counter.builder("reservation.events.resyncs")
+                .description("Subscribers that fell behind and were asked to reload")
+                .register(meterRegistry);
+        Gauge.builder("reservation.events.subscribers", this, ReservationEventBroadcaster::subscriberCount)
+                .description("Open reservation event streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Open a stream of the changes of a date, or of a single room on that date.
+     *
+     * @param date   the date
+     * @param roomId the room, or {@code null} for all rooms of the date
+     * @return emitter to return from the handler method
+     */
+    public SseEmitter subscribe(LocalDate date, Integer roomId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscription subscription = new Subscription(date, roomId, emitter);
+        emitter.onCompletion(() -> remove(subscription));
+        emitter.onTimeout(() -> remove(subscription));
+        emitter.onError(e -> remove(subscription));
+        subscriptions.computeIfAbsent(date, d -> ConcurrentHashMap.newKeySet()).add(subscription);
+        return emitter;
+    }
+
+    /**
+     * Fan a committed change out to the subscribers of its date and room.
+     *
+     * @param change reservation that was made or cancelled
+     */
+    public void onChange(ReservationChange change) {
+        ReservationSummary reservation = change.reservation();
+        Set<Subscription> subscribers = subscriptions.get(reservation.reservedDate());
+        if (subscribers == null) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> event = SseEmitter.event()
+                .name(change.type().name().toLowerCase(Locale.ROOT))
+                .data(change, MediaType.APPLICATION_JSON)
+                .build();
+        for (Subscription subscription : subscribers) {
+            if (subscription.roomId == null || subscription.roomId.equals(reservation.roomId())) {
+                subscription.offer(event);
+            }
+        }
+    }
+
+    /**
+     * Ask the subscribers of a date to reload, e.g. after more changes than could be relayed one by one.
+     *
+     * @param date the date
+     */
+    public void resync(LocalDate date) {
+        Set<Subscription> subscribers = subscriptions.get(date);
+        if (subscribers != null) {
+            subscribers.forEach(Subscription::resync);
+        }
+    }
+
+    /**
+     * Ask every subscriber to reload, e.g. after changes of unknown dates were missed.
+     */
+    public void resyncAll() {
+        subscriptions.values().forEach(subscribers -> subscribers.forEach(Subscription::resync));
+    }
+
+    /**
+     * Send a heartbeat comment to every open stream.
+     */
+    @Scheduled(fixedDelayString = "${reservation.events.heartbeat:15s}")
+    public void heartbeat() {
+        Set<ResponseBodyEmitter.DataWithMediaType> event = SseEmitter.event().comment("heartbeat").build();
+        subscriptions.values().forEach(subscribers -> subscribers.forEach(subscription -> subscription.offer(event)));
+    }
+
+    @PreDestroy
+    void close() {
+        subscriptions.values().forEach(subscribers -> subscribers.forEach(subscription -> subscription.emitter.complete()));
+        senders.close();
+    }
+
+    private void remove(Subscription subscription) {
+        subscriptions.computeIfPresent(subscription.date, (date, subscribers) -> {
+            subscribers.remove(subscription);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private double subscriberCount() {
+        return subscriptions.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private final class Subscription {
+
+        private final LocalDate date;
+
+        private final Integer roomId;
+
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue;
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscription(LocalDate date, Integer roomId, SseEmitter emitter) {
+            this.date = date;
+            this.roomId = roomId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        void offer(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            if (!queue.offer(event)) {
+                dropped.increment();
+                resync();
+                return;
+            }
+            drainLater();
+        }
+
+        void resync() {
+            //Events still buffered are superseded by the reload
+            queue.clear();
+            queue.offer(SseEmitter.event().name("resync").data("").build());
+            drainLater();
+        }
+
+        private void drainLater() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                Set<ResponseBodyEmitter.DataWithMediaType> event;
+                while ((event = queue.poll()) != null) {
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        log.debug("Closing reservation event stream: {}", e.getMessage());
+                        queue.clear();
+                        remove(this);
+                        emitter.completeWithError(e);
+                        return;
+                    }
+                }
+                draining.set(false);
+                // An event offered after the last poll but before the flag was reset must not be stranded
+            } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+    }
+
+}
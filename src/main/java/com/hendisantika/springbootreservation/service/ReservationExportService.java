@@ -0,0 +1,133 @@
+package com.hendisantika.springbootreservation.service;
+
+import com.hendisantika.springbootreservation.dto.ReservationRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams reservations from the database to a file in constant memory.
+ * <p>
+ * Rows are read with plain JDBC through a forward-only cursor that fetches a few hundred rows at a
+ * time, and every row is written out before the next one is read. No entity is loaded, so the
+ * persistence context does not grow with the size of the export. The export runs in a read-only
+ * transaction, which also keeps the cursor open and lets it be served by a replica.
+ */
+@Service
+public class ReservationExportService {
+
+    private static final String SELECT = "SELECT reservation_id, reserved_date, room_id, start_time, end_time, user_id "
+            + "FROM reservation WHERE reserved_date BETWEEN ? AND ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final JsonMapper jsonMapper;
+
+    private final int fetchSize;
+
+    public ReservationExportService(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    JsonMapper jsonMapper,
+                                    @Value("${reservation.transfer.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.jsonMapper = jsonMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Write the reservations of a date range, ordered by date, room and start time.
+     *
+     * @param from   first date, inclusive
+     * @param to     last date, inclusive
+     * @param roomId only reservations of this room, or all rooms when {@code null}
+     * @param userId only reservations of this user, or all users when {@code null}
+     * @param format file format
+     * @param out    destination, flushed but not closed
+     * @return number of exported reservations
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    public long export(LocalDate from, LocalDate to, Integer roomId, String userId, TransferFormat format, OutputStream out) {
+        StringBuilder sql = new StringBuilder(SELECT);
+        List<Object> args = new ArrayList<>(List.of(from, to));
+        if (roomId != null) {
+            sql.append(" AND room_id = ?");
+            args.add(roomId);
+        }
+        if (userId != null) {
+            sql.append(" AND user_id = ?");
+            args.add(userId);
+        }
+        sql.append(" ORDER BY reserved_date, room_id, start_time");
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long[] count = {0};
+        try {
+            if (format == TransferFormat.CSV) {
+                writer.write(TransferFormat.CSV_HEADER);
+                writer.write('\n');
+            }
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                new ArgumentPreparedStatementSetter(args.toArray()).setValues(ps);
+                return ps;
+            }, rs -> {
+                write(writer, format, toRecord(rs));
+                count[0]++;
+            }));
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count[0];
+    }
+
+    private void write(Writer writer, TransferFormat format, ReservationRecord record) {
+        try {
+            if (format == TransferFormat.CSV) {
+                writer.write(record.reservationId() + "," + record.reservedDate() + "," + record.roomId() + ","
+                        + record.startTime() + "," + record.endTime() + "," + TransferFormat.csvField(record.userId()));
+            } else {
+                writer.write(jsonMapper.writeValueAsString(record));
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ReservationRecord toRecord(ResultSet rs) throws SQLException {
+        return new ReservationRecord(
+                rs.getInt("reservation_id"),
+                rs.getObject("reserved_date", LocalDate.class),
+                rs.getInt("room_id"),
+                rs.getObject("start_time", LocalTime.class),
+                rs.getObject("end_time", LocalTime.class),
+                rs.getString("user_id"));
+    }
+
+}
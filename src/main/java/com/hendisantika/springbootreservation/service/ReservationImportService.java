@@ -0,0 +1,316 @@
+package com.hendisantika.springbootreservation.service;
+
+import com.hendisantika.springbootreservation.annotation.ReservationForm;
+import com.hendisantika.springbootreservation.domain.ReservableRoomId;
+import com.hendisantika.springbootreservation.dto.ImportRejection;
+import com.hendisantika.springbootreservation.dto.ImportResult;
+import com.hendisantika.springbootreservation.dto.ReservationRecord;
+import com.hendisantika.springbootreservation.exception.UnsupportedTransferFormatException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports reservations from a CSV or NDJSON file in constant memory.
+ * <p>
+ * The file is read line by line. Each line is checked with the rules of {@link ReservationForm}
+ * (30 minute steps, end after start), and valid lines are stored in chunks, each chunk with one
+ * {@code INSERT ... SELECT FROM unnest(...)} in its own transaction. Lines whose room-day or user does
+ * not exist are skipped, and lines that overlap a stored reservation are skipped by
+ * {@code ON CONFLICT DO NOTHING} on the {@code reservation_no_overlap} exclusion constraint. Every
+ * skipped line is reported with its line number, so an import can be fixed and re-run.
+ * <p>
+ * Ids are allocated from {@code reservation_id_seq} in blocks of {@value #ID_BLOCK}, the same way as
+ * Hibernate's pooled optimizer, so imported and booked reservations never share an id.
+ */
+@Slf4j
+@Service
+public class ReservationImportService {
+
+    /**
+     * Increment of {@code reservation_id_seq}, the allocation size of {@code Reservation}.
+     */
+    static final int ID_BLOCK = 50;
+
+    private static final String INSERT = """
+            WITH input (reservation_id, line, reserved_date, room_id, start_time, end_time, user_id) AS (
+                SELECT * FROM unnest(CAST(? AS int4[]), CAST(? AS int8[]), CAST(? AS date[]), CAST(? AS int4[]),
+                                     CAST(? AS time[]), CAST(? AS time[]), CAST(? AS varchar[]))
+            ), valid AS (
+                SELECT i.* FROM input i
+                JOIN reservable_room rr ON rr.reserved_date = i.reserved_date AND rr.room_id = i.room_id
+                JOIN users u ON u.user_id = i.user_id
+            ), inserted AS (
+                INSERT INTO reservation (reservation_id, reserved_date, room_id, start_time, end_time, user_id)
+                SELECT reservation_id, reserved_date, room_id, start_time, end_time, user_id FROM valid ORDER BY line
+                ON CONFLICT DO NOTHING
+                RETURNING reservation_id
+            )
+            SELECT i.line, v.reservation_id IS NOT NULL AS available, ins.reservation_id IS NOT NULL AS inserted
+            FROM input i
+            LEFT JOIN valid v ON v.reservation_id = i.reservation_id
+            LEFT JOIN inserted ins ON ins.reservation_id = i.reservation_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Validator validator;
+
+    private final JsonMapper jsonMapper;
+
+    private final RoomDayVersions versions;
+
+    private final ReservationAvailabilityIndex availabilityIndex;
+
+    private final RoomDayLockManager lockManager;
+
+    private final RoomUtilizationService utilizationService;
+
+    private final RoomDayOccupancy occupancy;
+
+    private final int chunkSize;
+
+    private final int maxReportedRejections;
+
+    public ReservationImportService(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    Validator validator,
+                                    JsonMapper jsonMapper,
+                                    RoomDayVersions versions,
+                                    ReservationAvailabilityIndex availabilityIndex,
+                                    RoomDayLockManager lockManager,
+                                    RoomUtilizationService utilizationService,
+                                    RoomDayOccupancy occupancy,
+                                    @Value("${reservation.transfer.chunk-size:1000}") int chunkSize,
+                                    @Value("${reservation.transfer.max-reported-rejections:1000}") int maxReportedRejections) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.jsonMapper = jsonMapper;
+        this.versions = versions;
+        this.availabilityIndex = availabilityIndex;
+        this.lockManager = lockManager;
+        this.utilizationService = utilizationService;
+        this.occupancy = occupancy;
+        this.chunkSize = chunkSize;
+        this.maxReportedRejections = maxReportedRejections;
+    }
+
+    /**
+     * Import the reservations of a file. A CSV file starts with a header naming at least the columns
+     * {@code reserved_date, room_id, start_time, end_time, user_id}; an NDJSON file has one
+     * {@link ReservationRecord} object per line. Empty lines are ignored.
+     *
+     * @param in     file contents, not closed
+     * @param format file format
+     * @return numbers of stored and rejected lines and the first rejections
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    public ImportResult importReservations(InputStream in, TransferFormat format) {
+        Run run = new Run();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        try {
+            Map<String, Integer> columns = null;
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == TransferFormat.CSV && columns == null) {
+                    columns = csvColumns(line);
+                    continue;
+                }
+                try {
+                    ReservationRecord record = format == TransferFormat.CSV ? parseCsv(line, columns) : parseJson(line);
+                    String violation = validate(record);
+                    if (violation != null) {
+                        run.reject(lineNumber, violation);
+                    } else {
+                        run.pending.add(new Line(lineNumber, record));
+                    }
+                } catch (IllegalArgumentException | DateTimeParseException | JacksonException e) {
+                    run.reject(lineNumber, "Unreadable line: " + e.getMessage());
+                }
+                if (run.pending.size() >= chunkSize) {
+                    flush(run);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        flush(run);
+        log.info("Imported {} reservations, rejected {} lines", run.imported, run.rejected);
+        return new ImportResult(run.imported, run.rejected, List.copyOf(run.rejections));
+    }
+
+    private void flush(Run run) {
+        if (run.pending.isEmpty()) {
+            return;
+        }
+        List<Line> chunk = List.copyOf(run.pending);
+        run.pending.clear();
+
+        Map<Long, Line> byLine = chunk.stream().collect(Collectors.toMap(Line::number, l -> l));
+        Set<ReservableRoomId> touched = new LinkedHashSet<>();
+        long[] inserted = {0};
+        transactionTemplate.executeWithoutResult(status -> {
+            //Wait for bookings in flight before inserting, so neither side waits for the other's rows
+            //while holding a room-day lock, and the recomputed totals include them
+            lockManager.lockAll(chunk.stream()
+                    .map(l -> new ReservableRoomId(l.record().roomId(), l.record().reservedDate()))
+                    .collect(Collectors.toSet()));
+            List<Integer> ids = allocateIds(chunk.size());
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(INSERT);
+                ps.setArray(1, con.createArrayOf("int4", ids.toArray()));
+                ps.setArray(2, con.createArrayOf("int8", chunk.stream().map(Line::number).toArray()));
+                ps.setArray(3, con.createArrayOf("text", chunk.stream().map(l -> l.record().reservedDate().toString()).toArray()));
+                ps.setArray(4, con.createArrayOf("int4", chunk.stream().map(l -> l.record().roomId()).toArray()));
+                ps.setArray(5, con.createArrayOf("text", chunk.stream().map(l -> l.record().startTime().toString()).toArray()));
+                ps.setArray(6, con.createArrayOf("text", chunk.stream().map(l -> l.record().endTime().toString()).toArray()));
+                ps.setArray(7, con.createArrayOf("varchar", chunk.stream().map(l -> l.record().userId()).toArray()));
+                return ps;
+            }, rs -> {
+                Line line = byLine.get(rs.getLong("line"));
+                if (rs.getBoolean("inserted")) {
+                    inserted[0]++;
+                    touched.add(new ReservableRoomId(line.record().roomId(), line.record().reservedDate()));
+                } else if (rs.getBoolean("available")) {
+                    run.reject(line.number(), "The time of entry is already reserved.");
+                } else {
+                    run.reject(line.number(), "Unknown user or combination of date and room that can not be reserved.");
+                }
+            });
+            if (!touched.isEmpty()) {
+                versions.bumpAll(touched);
+                occupancy.refresh(touched);
+                utilizationService.refresh(touched);
+            }
+        });
+        run.imported += inserted[0];
+        //The index did not see these rows
+        touched.forEach(availabilityIndex::invalidate);
+    }
+
+    private List<Integer> allocateIds(int count) {
+        int blocks = (count + ID_BLOCK - 1) / ID_BLOCK;
+        List<Integer> ids = new ArrayList<>(blocks * ID_BLOCK);
+        for (Long hi : jdbcTemplate.queryForList("SELECT nextval('reservation_id_seq') FROM generate_series(1, ?)",
+                Long.class, blocks)) {
+            for (long id = hi - ID_BLOCK + 1; id <= hi; id++) {
+                ids.add(Math.toIntExact(id));
+            }
+        }
+        return ids.subList(0, count);
+    }
+
+    private String validate(ReservationRecord record) {
+        if (record.reservedDate() == null || record.roomId() == null || record.userId() == null || record.userId().isBlank()) {
+            return "reserved_date, room_id and user_id are required";
+        }
+        ReservationForm form = new ReservationForm();
+        form.setStartTime(record.startTime());
+        form.setEndTime(record.endTime());
+        Set<ConstraintViolation<ReservationForm>> violations = validator.validate(form);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static Map<String, Integer> csvColumns(String header) {
+        List<String> names;
+        try {
+            names = TransferFormat.csvFields(header);
+        } catch (IllegalArgumentException e) {
+            throw new UnsupportedTransferFormatException("Unreadable CSV header: " + e.getMessage());
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("reserved_date", "room_id", "start_time", "end_time", "user_id")) {
+            if (!columns.containsKey(required)) {
+                throw new UnsupportedTransferFormatException("CSV header is missing the column " + required);
+            }
+        }
+        return columns;
+    }
+
+    private static ReservationRecord parseCsv(String line, Map<String, Integer> columns) {
+        List<String> fields = TransferFormat.csvFields(line);
+        if (fields.size() < columns.size()) {
+            throw new IllegalArgumentException("expected " + columns.size() + " fields but found " + fields.size());
+        }
+        return new ReservationRecord(null,
+                LocalDate.parse(fields.get(columns.get("reserved_date")).trim()),
+                Integer.valueOf(fields.get(columns.get("room_id")).trim()),
+                LocalTime.parse(fields.get(columns.get("start_time")).trim()),
+                LocalTime.parse(fields.get(columns.get("end_time")).trim()),
+                fields.get(columns.get("user_id")).trim());
+    }
+
+    private ReservationRecord parseJson(String line) {
+        return jsonMapper.readValue(line, ReservationRecord.class);
+    }
+
+    private record Line(long number, ReservationRecord record) {
+    }
+
+    /**
+     * State of one import.
+     */
+    private final class Run {
+
+        private final List<Line> pending = new ArrayList<>();
+
+        private final List<ImportRejection> rejections = new ArrayList<>();
+
+        private long imported;
+
+        private long rejected;
+
+        private void reject(long line, String reason) {
+            rejected++;
+            if (rejections.size() < maxReportedRejections) {
+                rejections.add(new ImportRejection(line, reason));
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.hendisantika.springbootreservation.service;
+
+import com.hendisantika.springbootreservation.exception.AlreadyReservedException;
+import com.hendisantika.springbootreservation.exception.UnavailableReservationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Times the methods annotated with {@link ReservationOperation} and counts their rejections.
+ * <p>
+ * {@code reservation.operations} is tagged with the operation and its outcome: {@code success},
+ * {@code conflict}, {@code unavailable}, {@code error} or {@code rolled_back} when an enclosing
+ * transaction did not commit. The aspect runs outside of the method's own transaction, and an
+ * operation joining an enclosing transaction is stopped once that one completed, so the commit is
+ * always part of the measured time. {@code reservation.rejections} counts
+ * {@link AlreadyReservedException} and {@link UnavailableReservationException} per operation.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class ReservationMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Run and measure a method annotated with {@link ReservationOperation}.
+     *
+     * @param joinPoint the annotated method
+     * @param operation its annotation
+     * @return result of the method
+     * @throws Throwable whatever the method throws
+     */
+    @Around("@annotation(operation)")
+    public Object record(ProceedingJoinPoint joinPoint, ReservationOperation operation) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (AlreadyReservedException e) {
+            reject(operation.value(), e);
+            stop(sample, operation.value(), "conflict");
+            throw e;
+        } catch (UnavailableReservationException e) {
+            reject(operation.value(), e);
+            stop(sample, operation.value(), "unavailable");
+            throw e;
+        } catch (Throwable e) {
+            stop(sample, operation.value(), "error");
+            throw e;
+        }
+        stopAfterCompletion(sample, operation.value());
+        return result;
+    }
+
+    private void stopAfterCompletion(Timer.Sample sample, String operation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            stop(sample, operation, "success");
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                stop(sample, operation, status == STATUS_COMMITTED ? "success" : "rolled_back");
+            }
+        });
+    }
+
+    private void stop(Timer.Sample sample, String operation, String outcome) {
+        sample.stop(Timer.builder("reservation.operations")
+                .description("Time to reserve or cancel, including the commit")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private void reject(String operation, RuntimeException e) {
+        Counter.builder("reservation.rejections")
+                .description("Reservations rejected because of a conflict or an unavailable room-day")
+                .tag("operation", operation)
+                .tag("exception", e.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.hendisantika.springbootreservation.service;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a service method as a reservation operation that is timed and counted by
+ * {@link ReservationMetrics}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReservationOperation {
+
+    /**
+     * @return operation tag, e.g. {@code reserve}
+     */
+    String value();
+
+}
@@ -0,0 +1,142 @@
+package com.hendisantika.springbootreservation.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Maintains the monthly partitions of {@code reservation}.
+ * <p>
+ * Partitions are created a few months ahead, so new reservations never end up in the default
+ * partition. Partitions of months older than the retention period are detached, their rows are
+ * copied into {@code reservation_archive} and the detached table is dropped, all in one transaction
+ * per partition. Detaching needs a short exclusive lock on {@code reservation}; the statement gives up
+ * after {@code lock-timeout} instead of queueing behind long queries, and the next run retries.
+ * <p>
+ * Runs on startup and periodically. Only one node runs at a time; the others skip the run
+ * when the transaction-scoped advisory lock is taken.
+ */
+@Slf4j
+@Component
+public class ReservationPartitionMaintenance {
+
+    private static final long ADVISORY_LOCK_KEY = 0x7061727469746e73L;
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int monthsAhead;
+
+    private final int retentionMonths;
+
+    private final Duration lockTimeout;
+
+    public ReservationPartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                           TransactionTemplate transactionTemplate,
+                                           @Value("${reservation.partitions.months-ahead:4}") int monthsAhead,
+                                           @Value("${reservation.partitions.retention-months:12}") int retentionMonths,
+                                           @Value("${reservation.partitions.lock-timeout:2s}") Duration lockTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.lockTimeout = lockTimeout;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    /**
+     * Create upcoming partitions and archive expired ones.
+     */
+    @Scheduled(fixedDelayString = "${reservation.partitions.interval:6h}",
+            initialDelayString = "${reservation.partitions.interval:6h}")
+    public void maintain() {
+        YearMonth thisMonth = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartition(thisMonth.plusMonths(i));
+        }
+
+        YearMonth oldestKept = thisMonth.minusMonths(retentionMonths);
+        for (String partition : partitions()) {
+            if (YearMonth.parse(partition.substring("reservation_p".length()), PARTITION_SUFFIX).isBefore(oldestKept)) {
+                archive(partition);
+            }
+        }
+
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM reservation_pdefault)", Boolean.class))) {
+            log.warn("reservation_pdefault holds reservations, partitions of their months can not be created");
+        }
+    }
+
+    /**
+     * Return the names of the monthly partitions, oldest first.
+     *
+     * @return partition table names
+     */
+    public List<String> partitions() {
+        return jdbcTemplate.queryForList("""
+                SELECT c.relname
+                  FROM pg_inherits i
+                  JOIN pg_class c ON c.oid = i.inhrelid
+                 WHERE i.inhparent = 'reservation'::regclass
+                   AND c.relname ~ '^reservation_p[0-9]{6}$'
+                 ORDER BY c.relname""", String.class);
+    }
+
+    private void createPartition(YearMonth month) {
+        String partition = partitionName(month);
+        inLockedTransaction("create " + partition, () -> jdbcTemplate.execute(
+                "CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF reservation FOR VALUES FROM ('"
+                        + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')"));
+    }
+
+    private void archive(String partition) {
+        inLockedTransaction("archive " + partition, () -> {
+            jdbcTemplate.execute("ALTER TABLE reservation DETACH PARTITION " + partition);
+            int archived = jdbcTemplate.update("INSERT INTO reservation_archive "
+                    + "(reservation_id, reserved_date, room_id, start_time, end_time, user_id, series_id) "
+                    + "SELECT reservation_id, reserved_date, room_id, start_time, end_time, user_id, series_id FROM " + partition);
+            jdbcTemplate.execute("DROP TABLE " + partition);
+            log.info("Archived {} reservations of partition {}", archived, partition);
+        });
+    }
+
+    private void inLockedTransaction(String task, Runnable action) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class,
+                        ADVISORY_LOCK_KEY))) {
+                    log.debug("Partitions are maintained by another node, skipping {}", task);
+                    return;
+                }
+                jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeout.toMillis());
+                action.run();
+            });
+        } catch (DataAccessException e) {
+            //Retried on the next run
+            log.warn("Could not {}: {}", task, e.getMessage());
+        }
+    }
+
+    private static String partitionName(YearMonth month) {
+        return "reservation_p" + month.format(PARTITION_SUFFIX);
+    }
+
+}
@@ -1,20 +1,42 @@
 package com.hendisantika.springbootreservation.service;
 
-import com.hendisantika.springbootreservation.domain.ReservableRoom;
 import com.hendisantika.springbootreservation.domain.ReservableRoomId;
 import com.hendisantika.springbootreservation.domain.Reservation;
+import com.hendisantika.springbootreservation.domain.ReservationSeries;
+import com.hendisantika.springbootreservation.domain.RoleName;
+import com.hendisantika.springbootreservation.domain.TimeSlots;
+import com.hendisantika.springbootreservation.dto.ReservationChange;
+import com.hendisantika.springbootreservation.dto.ReservationCursor;
+import com.hendisantika.springbootreservation.dto.ReservationSummary;
+import com.hendisantika.springbootreservation.dto.ReservationView;
+import com.hendisantika.springbootreservation.dto.SeriesReservationResult;
+import com.hendisantika.springbootreservation.dto.UserReservationPage;
+import com.hendisantika.springbootreservation.dto.UserReservationView;
 import com.hendisantika.springbootreservation.exception.AlreadyReservedException;
 import com.hendisantika.springbootreservation.exception.UnavailableReservationException;
 import com.hendisantika.springbootreservation.repository.ReservableRoomRepository;
 import com.hendisantika.springbootreservation.repository.ReservationRepository;
+import com.hendisantika.springbootreservation.repository.ReservationSeriesRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.repository.query.Param;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Created by IntelliJ IDEA.
@@ -29,66 +51,445 @@ import java.util.Optional;
 @Transactional
 public class ReservationService {
 
+    private static final String SUMMARY_COLUMNS = "reservation_id, room_id, reserved_date, start_time, end_time";
+
+    private static final String RETURNING_SUMMARY = " RETURNING " + SUMMARY_COLUMNS;
+
+    //The room-day is row-locked in the CTE before DELETE locks the reservation row
+    private static final String CANCEL = """
+            WITH room_day AS MATERIALIZED (
+                SELECT rr.room_id, rr.reserved_date FROM reservable_room rr
+                WHERE (rr.room_id, rr.reserved_date) IN (
+                    SELECT room_id, reserved_date FROM reservation WHERE reservation_id = ? AND (user_id = ? OR ?))
+                FOR NO KEY UPDATE OF rr
+            )
+            DELETE FROM reservation r USING room_day d
+            WHERE r.reservation_id = ? AND r.room_id = d.room_id AND r.reserved_date = d.reserved_date
+            RETURNING r.reservation_id, r.room_id, r.reserved_date, r.start_time, r.end_time
+            """;
+
+    private static final String CANCEL_ALL = """
+            WITH room_day AS MATERIALIZED (
+                SELECT rr.room_id, rr.reserved_date FROM reservable_room rr
+                WHERE rr.reserved_date = ? AND rr.room_id IN (
+                    SELECT room_id FROM reservation WHERE user_id = ? AND reserved_date = ?)
+                ORDER BY rr.room_id
+                FOR NO KEY UPDATE OF rr
+            )
+            DELETE FROM reservation r USING room_day d
+            WHERE r.user_id = ? AND r.room_id = d.room_id AND r.reserved_date = d.reserved_date
+            RETURNING r.reservation_id, r.room_id, r.reserved_date, r.start_time, r.end_time
+            """;
+
+    private static final RowMapper<ReservationSummary> SUMMARY = (rs, rowNum) -> new ReservationSummary(
+            rs.getInt("reservation_id"),
+            rs.getInt("room_id"),
+            rs.getObject("reserved_date", LocalDate.class),
+            rs.getObject("start_time", LocalTime.class),
+            rs.getObject("end_time", LocalTime.class));
+
     @Autowired
     ReservationRepository reservationRepository;
 
     @Autowired
     ReservableRoomRepository reservableRoomRepository;
 
+    @Autowired
+    ReservationSeriesRepository seriesRepository;
+
+    @Autowired
+    ReservationAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    RoomDayLockManager lockManager;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    ReadYourWritesTracker readYourWritesTracker;
+
+    @Autowired
+    RoomDayOccupancy occupancy;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
     /**
      * Return a list of reservation.
      *
      * @param reservableRoomId
      * @return
      */
+    @Transactional(readOnly = true)
     public List<Reservation> findReservations(ReservableRoomId reservableRoomId) {
 
         return reservationRepository.findByReservableRoomReservableRoomIdOrderByStartTimeAsc(reservableRoomId);
 
     }
 
+    /**
+     * Return the reservation list of a room-day as read-only rows with the user's display name.
+     *
+     * @param reservableRoomId room and date
+     * @return reservations ordered by start time
+     */
+    @Transactional(readOnly = true)
+    public List<ReservationView> findReservationViews(ReservableRoomId reservableRoomId) {
+
+        return reservationRepository.findViewsByReservableRoomId(reservableRoomId);
+
+    }
+
+    /**
+     * Return a page of a user's reservations in date and time order.
+     * <p>
+     * Pages are addressed by keyset instead of offset: the next page starts after the last row of the
+     * previous one, so every page costs the same index seek however deep the user has paged.
+     *
+     * @param userId user whose reservations are listed
+     * @param from   first date of the first page
+     * @param after  position to continue after, {@code null} for the first page
+     * @param size   maximum number of reservations of the page
+     * @return the reservations and the cursor of the next page
+     */
+    @Transactional(readOnly = true)
+    public UserReservationPage findUserReservations(String userId, LocalDate from, ReservationCursor after, int size) {
+
+        //Read one row more than requested to know whether there is a next page
+        Limit limit = Limit.of(size + 1);
+        List<UserReservationView> rows = after == null
+                ? reservationRepository.findUserReservationsFrom(userId, from, limit)
+                : reservationRepository.findUserReservationsAfter(userId, after.reservedDate(), after.startTime(),
+                after.reservationId(), limit);
+        if (rows.size() <= size) {
+            return new UserReservationPage(rows, null);
+        }
+        List<UserReservationView> page = rows.subList(0, size);
+        return new UserReservationPage(List.copyOf(page), page.getLast().cursor().toString());
+
+    }
+
     /**
      * Reserve
+     * <p>
+     * The reserved slots are set in the occupancy bitmap of the room-day with one conditional update,
+     * which rejects overlaps and unknown room-days, so no read is needed before the write. The update
+     * also bumps the version of the room-day and holds its row lock until commit, so other nodes wait
+     * for this booking without a separate lock statement. The {@code reservation_no_overlap} exclusion
+     * constraint stays as a safety net. The availability index only short-cuts requests that are
+     * known to collide.
      *
      * @param reservation
      * @return
      */
+    @ReservationOperation("reserve")
     public Reservation reserve(Reservation reservation) {
 
         //Get room and date from booking
         ReservableRoomId reservableRoomId = reservation.getReservableRoom().getReservableRoomId();
 
-        //Get availability from a room and date
-        Optional<ReservableRoom> reservableData = reservableRoomRepository.findById(reservableRoomId);
-        ReservableRoom reservable = reservableData.get();
+        //Queue bookings of the same room and date in memory; the occupancy update serializes them across nodes
+        lockManager.lockLocally(List.of(reservableRoomId));
 
-        if (reservable == null) {
-            //Throw an exception because it is not available
-            throw new UnavailableReservationException("Combination of input date and room can not be reserved.");
+        //Are there duplicate bookings?
+        claim(reservableRoomId, reservation.slotMask(), "The time of entry is already reserved.");
+        occupy(reservableRoomId, reservation.slotMask(), "The time of entry is already reserved.");
+
+        //Preservation
+        try {
+            reservationRepository.saveAndFlush(reservation);
+        } catch (DataIntegrityViolationException e) {
+            throw translate(e, List.of(reservableRoomId));
         }
+        readYourWritesTracker.recordWrite();
+        eventPublisher.publishEvent(ReservationChange.reserved(reservation));
 
-        //Are there duplicate bookings?
-        boolean overlap = reservationRepository.findByReservableRoomReservableRoomIdOrderByStartTimeAsc(reservableRoomId)
-                .stream()
-                .anyMatch(x -> x.overlap(reservation));
+        return reservation;
+
+    }
+
+    /**
+     * Reserve several time ranges in one transaction. Either all of them are reserved or none.
+     * <p>
+     * The occupancy of all room-days is set with one conditional update, ids are allocated from pooled
+     * sequences and the rows are sent as JDBC batches, so the number of round-trips does not grow with
+     * the number of reservations.
+     *
+     * @param reservations reservations of any rooms and dates
+     * @return the saved reservations
+     */
+    @ReservationOperation("reserve_batch")
+    public List<Reservation> reserveAll(List<Reservation> reservations) {
 
-        if (overlap) {
-            //exception
-            throw new AlreadyReservedException("The time of entry is already reserved.");
+        //Reject ranges of the batch that overlap each other before touching anything shared
+        Map<ReservableRoomId, Long> masks = new HashMap<>();
+        for (Reservation reservation : reservations) {
+            ReservableRoomId reservableRoomId = reservation.getReservableRoom().getReservableRoomId();
+            long mask = reservation.slotMask();
+            long previous = masks.getOrDefault(reservableRoomId, 0L);
+            if ((previous & mask) != 0) {
+                throw new AlreadyReservedException("The time of entry overlaps another entry: " + describe(reservation));
+            }
+            masks.put(reservableRoomId, previous | mask);
         }
 
-        //Preservation
-        reservationRepository.save(reservation);
+        lockManager.lockLocally(masks.keySet());
 
-        return reservation;
+        for (Reservation reservation : reservations) {
+            claim(reservation.getReservableRoom().getReservableRoomId(), reservation.slotMask(),
+                    "The time of entry is already reserved: " + describe(reservation));
+        }
+        Set<ReservableRoomId> occupied = occupancy.occupyAll(masks);
+        for (ReservableRoomId reservableRoomId : masks.keySet()) {
+            if (!occupied.contains(reservableRoomId)) {
+                throw notOccupied(reservableRoomId, "The time of entry is already reserved: "
+                        + reservableRoomId.getReservedDate() + " room " + reservableRoomId.getRoomId());
+            }
+        }
+
+        try {
+            reservationRepository.saveAll(reservations);
+            reservationRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw translate(e, masks.keySet());
+        }
+        readYourWritesTracker.recordWrite();
+        reservations.forEach(reservation -> eventPublisher.publishEvent(ReservationChange.reserved(reservation)));
+
+        return reservations;
+
+    }
+
+    /**
+     * Return the dates of all occurrences of a series.
+     *
+     * @param series recurring booking
+     * @return occurrence dates in ascending order
+     */
+    public List<LocalDate> occurrences(ReservationSeries series) {
+        List<LocalDate> dates = new ArrayList<>(series.getOccurrences());
+        for (int n = 0; n < series.getOccurrences(); n++) {
+            dates.add(series.getRecurrence().occurrence(series.getFirstDate(), n));
+        }
+        return dates;
+    }
+
+    /**
+     * Reserve every occurrence of a series that is free.
+     * <p>
+     * The occupancy of all occurrences is set with one conditional update instead of reserving date by
+     * date. Occurrences it skipped are looked up once to report whether they collide or fall on a date
+     * the room can not be reserved on; the others are reserved in one batch.
+     *
+     * @param series recurring booking with room, user, times and recurrence set
+     * @return reserved, collided and unavailable dates
+     */
+    @ReservationOperation("reserve_series")
+    public SeriesReservationResult reserveSeries(ReservationSeries series) {
+
+        Integer roomId = series.getMeetingRoom().getRoomId();
+        List<LocalDate> dates = occurrences(series);
+        List<ReservableRoomId> reservableRoomIds = dates.stream()
+                .map(date -> new ReservableRoomId(roomId, date))
+                .toList();
+
+        lockManager.lockLocally(reservableRoomIds);
+
+        long mask = TimeSlots.mask(series.getStartTime(), series.getEndTime());
+        Map<ReservableRoomId, Long> masks = new HashMap<>();
+        reservableRoomIds.forEach(reservableRoomId -> masks.put(reservableRoomId, mask));
+        Set<ReservableRoomId> occupied = occupancy.occupyAll(masks);
+        List<LocalDate> skippedDates = reservableRoomIds.stream()
+                .filter(reservableRoomId -> !occupied.contains(reservableRoomId))
+                .map(ReservableRoomId::getReservedDate)
+                .toList();
+        Map<LocalDate, Long> bitmaps = occupancy.findByRoom(roomId, skippedDates);
+
+        List<LocalDate> reservedDates = new ArrayList<>();
+        List<LocalDate> collidedDates = new ArrayList<>();
+        List<LocalDate> unavailableDates = new ArrayList<>();
+        for (ReservableRoomId reservableRoomId : reservableRoomIds) {
+            if (occupied.contains(reservableRoomId)) {
+                //Reserved without consulting the index; drop the entry instead of loading it per occurrence
+                availabilityIndex.invalidate(reservableRoomId);
+                reservedDates.add(reservableRoomId.getReservedDate());
+            } else if (bitmaps.containsKey(reservableRoomId.getReservedDate())) {
+                collidedDates.add(reservableRoomId.getReservedDate());
+            } else {
+                unavailableDates.add(reservableRoomId.getReservedDate());
+            }
+        }
+
+        if (reservedDates.isEmpty()) {
+            return new SeriesReservationResult(null, reservedDates, collidedDates, unavailableDates);
+        }
+
+        seriesRepository.save(series);
+        List<Reservation> reservations = reservedDates.stream()
+                .map(date -> {
+                    Reservation reservation = new Reservation();
+                    reservation.setStartTime(series.getStartTime());
+                    reservation.setEndTime(series.getEndTime());
+                    reservation.setReservableRoom(reservableRoomRepository.getReferenceById(new ReservableRoomId(roomId, date)));
+                    reservation.setUser(series.getUser());
+                    reservation.setSeries(series);
+                    return reservation;
+                })
+                .toList();
+
+        try {
+            reservationRepository.saveAll(reservations);
+            reservationRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw translate(e, reservableRoomIds);
+        }
+        readYourWritesTracker.recordWrite();
+        reservations.forEach(reservation -> eventPublisher.publishEvent(ReservationChange.reserved(reservation)));
 
+        return new SeriesReservationResult(series.getSeriesId(), reservedDates, collidedDates, unavailableDates);
+
+    }
+
+    private void claim(ReservableRoomId reservableRoomId, long mask, String conflictMessage) {
+        if (!availabilityIndex.tryClaim(reservableRoomId, mask)) {
+            //The index may miss a cancellation made on another node, so confirm with the database once
+            availabilityIndex.refresh(reservableRoomId);
+            if (!availabilityIndex.tryClaim(reservableRoomId, mask)) {
+                //exception
+                throw new AlreadyReservedException(conflictMessage);
+            }
+        }
     }
 
-    @PreAuthorize("hasRole('ADMIN') or #reservation.user.userId == principal.user.userId")
-    public void cancel(@Param("reservation") Reservation reservation) {
+    private void occupy(ReservableRoomId reservableRoomId, long mask, String conflictMessage) {
+        if (!occupancy.occupy(reservableRoomId, mask)) {
+            throw notOccupied(reservableRoomId, conflictMessage);
+        }
+    }
 
-        reservationRepository.delete(reservation);
+    private RuntimeException notOccupied(ReservableRoomId reservableRoomId, String conflictMessage) {
+        //Taken by a booking this node's index has not seen, or not reservable at all
+        availabilityIndex.invalidate(reservableRoomId);
+        if (occupancy.find(reservableRoomId) == null) {
+            return new UnavailableReservationException("Combination of input date and room can not be reserved.");
+        }
+        return new AlreadyReservedException(conflictMessage);
+    }
+
+    private static String describe(Reservation reservation) {
+        ReservableRoomId reservableRoomId = reservation.getReservableRoom().getReservableRoomId();
+        return reservableRoomId.getReservedDate() + " room " + reservableRoomId.getRoomId()
+                + " " + reservation.getStartTime() + "-" + reservation.getEndTime();
+    }
+
+    private RuntimeException translate(DataIntegrityViolationException e, Collection<ReservableRoomId> reservableRoomIds) {
+        if (SqlStates.hasSqlState(e, SqlStates.EXCLUSION_VIOLATION)) {
+            //Booked through another node, the index has to be reloaded
+            reservableRoomIds.forEach(availabilityIndex::invalidate);
+            return new AlreadyReservedException("The time of entry is already reserved.");
+        }
+        if (SqlStates.hasSqlState(e, SqlStates.FOREIGN_KEY_VIOLATION)) {
+            return new UnavailableReservationException("Combination of input date and room can not be reserved.");
+        }
+        return e;
+    }
+
+    /**
+     * Cancel a reservation.
+     * <p>
+     * A single {@code DELETE ... RETURNING} removes the reservation only when it belongs to the user or
+     * the user is an administrator, so it is authorized without loading the entity. The statement
+     * locks the room-day of the reservation before it deletes the row, in the same order as bookings,
+     * imports and {@link #clearRoom}. Only when nothing was deleted is the reservation looked up once
+     * more, to tell a missing one from one of another user.
+     *
+     * @param reservationId id of the reservation
+     * @param user          user who cancels
+     * @return the cancelled reservation, empty when there is no such reservation
+     * @throws AccessDeniedException when the reservation belongs to another user
+     */
+    @ReservationOperation("cancel")
+    public Optional<ReservationSummary> cancel(Integer reservationId, ReservationUserDetails user) {
+
+        List<ReservationSummary> cancelled = jdbcTemplate.query(CANCEL, SUMMARY,
+                reservationId, user.getUsername(), isAdmin(user), reservationId);
+        if (cancelled.isEmpty()) {
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM reservation WHERE reservation_id = ?)", Boolean.class, reservationId))) {
+                throw new AccessDeniedException("The reservation belongs to another user.");
+            }
+            return Optional.empty();
+        }
+        release(cancelled);
+        return Optional.of(cancelled.getFirst());
+
+    }
+
+    /**
+     * Cancel all reservations of a user on a date with a single statement, which locks their
+     * room-days before it deletes them.
+     *
+     * @param date reservation date
+     * @param user user whose reservations are cancelled
+     * @return the cancelled reservations
+     */
+    @ReservationOperation("cancel_batch")
+    public List<ReservationSummary> cancelAll(LocalDate date, ReservationUserDetails user) {
+
+        List<ReservationSummary> cancelled = jdbcTemplate.query(CANCEL_ALL, SUMMARY,
+                date, user.getUsername(), date, user.getUsername());
+        release(cancelled);
+        return cancelled;
+
+    }
+
+    /**
+     * Cancel all reservations of a room in a date range with a single statement, e.g. before the
+     * room is renovated. All room-days of the range are locked before the delete.
+     *
+     * @param roomId meeting room id
+     * @param from   first date, inclusive
+     * @param to     last date, inclusive
+     * @return the cancelled reservations
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @ReservationOperation("cancel_batch")
+    public List<ReservationSummary> clearRoom(Integer roomId, LocalDate from, LocalDate to) {
+
+        if (from.isAfter(to)) {
+            return List.of();
+        }
+        lockManager.lockAll(from.datesUntil(to.plusDays(1))
+                .map(date -> new ReservableRoomId(roomId, date))
+                .toList());
+
+        List<ReservationSummary> cancelled = jdbcTemplate.query(
+                "DELETE FROM reservation WHERE room_id = ? AND reserved_date BETWEEN ? AND ?" + RETURNING_SUMMARY,
+                SUMMARY, roomId, from, to);
+        release(cancelled);
+        return cancelled;
+
+    }
+
+    private void release(List<ReservationSummary> cancelled) {
+        if (cancelled.isEmpty()) {
+            return;
+        }
+        Map<ReservableRoomId, Long> masks = new HashMap<>();
+        for (ReservationSummary reservation : cancelled) {
+            masks.merge(new ReservableRoomId(reservation.roomId(), reservation.reservedDate()),
+                    TimeSlots.mask(reservation.startTime(), reservation.endTime()), (a, b) -> a | b);
+        }
+
+        occupancy.releaseAll(masks);
+        masks.forEach(availabilityIndex::releaseAfterCommit);
+        readYourWritesTracker.recordWrite();
+        cancelled.forEach(reservation -> eventPublisher.publishEvent(ReservationChange.cancelled(reservation)));
+    }
 
+    private static boolean isAdmin(ReservationUserDetails user) {
+        return user.getUser().getRoleName() == RoleName.ADMIN;
     }
 
 }
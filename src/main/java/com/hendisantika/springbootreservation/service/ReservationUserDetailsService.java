@@ -3,10 +3,13 @@ package com.hendisantika.springbootreservation.service;
 import com.hendisantika.springbootreservation.domain.User;
 import com.hendisantika.springbootreservation.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -20,7 +23,7 @@ import java.util.Optional;
  * Time: 05:35
  */
 @Service
-public class ReservationUserDetailsService implements UserDetailsService {
+public class ReservationUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     UserRepository userRepository;
@@ -28,7 +31,7 @@ public class ReservationUserDetailsService implements UserDetailsService {
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 
-        Optional<User> user = userRepository.findById(username);
+        Optional<User> user = userRepository.findByUserId(username);
 
         if (user.isPresent()) {
             return new ReservationUserDetails(user.get());
@@ -37,4 +40,23 @@ public class ReservationUserDetailsService implements UserDetailsService {
 
     }
 
+    /**
+     * Store a re-hashed password after a successful login with an outdated encoding.
+     *
+     * @param user        the authenticated user
+     * @param newPassword the password encoded with the current encoder settings
+     * @return the user with the new password
+     */
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = UserRepository.USERS_CACHE, key = "#user.username")
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+
+        User entity = ((ReservationUserDetails) user).getUser();
+        userRepository.updatePassword(entity.getUserId(), newPassword);
+        entity.setPassword(newPassword);
+        return new ReservationUserDetails(entity);
+
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.hendisantika.springbootreservation.service;
+
+import com.hendisantika.springbootreservation.domain.MeetingRoom;
+import com.hendisantika.springbootreservation.domain.ReservableRoom;
+import com.hendisantika.springbootreservation.domain.ReservableRoomId;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Evicts cached rooms and reservable dates after they were changed outside of Hibernate,
+ * e.g. by SQL scripts or set-based inserts.
+ * <p>
+ * Changes made through repositories keep the second-level cache consistent on their own.
+ * Evictions requested inside a transaction are applied after commit so that a concurrent
+ * reader can not put the old state back into the cache.
+ */
+@Component
+public class RoomCacheEvictor {
+
+    private final Cache cache;
+
+    public RoomCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    /**
+     * Evict a meeting room, e.g. after it was renamed.
+     *
+     * @param roomId meeting room id
+     */
+    public void evictMeetingRoom(Integer roomId) {
+        afterCommit(() -> cache.evictEntityData(MeetingRoom.class, roomId));
+    }
+
+    /**
+     * Evict a single reservable room-day.
+     *
+     * @param reservableRoomId room and date
+     */
+    public void evictReservableRoom(ReservableRoomId reservableRoomId) {
+        afterCommit(() -> cache.evictEntityData(ReservableRoom.class, reservableRoomId));
+    }
+
+    /**
+     * Evict all reservable room-days, e.g. after dates were added or removed in bulk.
+     */
+    public void evictReservableRooms() {
+        afterCommit(() -> cache.evictEntityData(ReservableRoom.class));
+    }
+
+    /**
+     * Evict every cached room, reservable date and query result.
+     */
+    public void evictAll() {
+        afterCommit(cache::evictAllRegions);
+    }
+
+    private static void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+
+}
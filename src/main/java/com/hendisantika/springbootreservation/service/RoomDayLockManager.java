@@ -0,0 +1,175 @@
+package com.hendisantika.springbootreservation.service;
+
+import com.hendisantika.springbootreservation.domain.ReservableRoomId;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes writes to the same room and date, within this node and across the cluster.
+ * <p>
+ * A lock is taken in two stages and held until the surrounding transaction completes:
+ * <ol>
+ * <li>a striped in-process {@link ReentrantLock}, so threads of this node queue in memory
+ * instead of holding a database connection while they wait;</li>
+ * <li>the row lock of the room-day in {@code reservable_room}, so other nodes serialize as well;
+ * all room-days of a call are locked with one statement.</li>
+ * </ol>
+ * Bookings only take the first stage with {@link #lockLocally}: the conditional occupancy
+ * {@code UPDATE} that follows takes the row lock itself, and cancellations lock the row in
+ * their {@code DELETE}. Imports and room clearances lock before they touch {@code reservation}. Every
+ * writer thus locks the room-day before any reservation row of it, and they all wait on the same row.
+ * <p>
+ * Several room-days are always locked in a fixed order to avoid deadlocks. Both stages give up after
+ * {@code reservation.lock.timeout} with a {@link CannotAcquireLockException}; the database stage
+ * through {@code SET LOCAL lock_timeout}, which also bounds the other lock waits of the transaction.
+ * Wait times of both stages are recorded in the {@code reservation.lock.wait} timer.
+ */
+@Component
+public class RoomDayLockManager {
+
+    private static final Comparator<ReservableRoomId> LOCK_ORDER = Comparator
+            .comparing(ReservableRoomId::getReservedDate)
+            .thenComparing(ReservableRoomId::getRoomId);
+
+    private final ReentrantLock[] stripes;
+
+    private final Duration timeout;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Timer localWait;
+
+    private final Timer databaseWait;
+
+    public RoomDayLockManager(JdbcTemplate jdbcTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${reservation.lock.stripes:64}") int stripes,
+                              @Value("${reservation.lock.timeout:5s}") Duration timeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.timeout = timeout;
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock(true);
+        }
+        this.localWait = Timer.builder("reservation.lock.wait")
+                .description("Time spent waiting for a room-day lock")
+                .tag("stage", "local")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.databaseWait = Timer.builder("reservation.lock.wait")
+                .description("Time spent waiting for a room-day lock")
+                .tag("stage", "database")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("reservation.lock.waiting", this, RoomDayLockManager::queueLength)
+                .description("Threads of this node waiting for a room-day lock")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lock several room-days until the current transaction completes.
+     *
+     * @param reservableRoomIds rooms and dates, in any order
+     */
+    public void lockAll(Collection<ReservableRoomId> reservableRoomIds) {
+        TreeSet<ReservableRoomId> ordered = ordered(reservableRoomIds);
+        lockStripes(ordered);
+
+        long started = System.nanoTime();
+        //Translated to CannotAcquireLockException (SQL state 55P03) when exceeded
+        jdbcTemplate.execute("SET LOCAL lock_timeout = " + timeout.toMillis());
+        //One statement for all room-days; rows are locked as they are returned, so in ORDER BY order
+        jdbcTemplate.execute(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT rr.room_id FROM reservable_room rr "
+                    + "JOIN unnest(CAST(? AS date[]), CAST(? AS int4[])) AS t(reserved_date, room_id) "
+                    + "ON rr.reserved_date = t.reserved_date AND rr.room_id = t.room_id "
+                    + "ORDER BY rr.reserved_date, rr.room_id FOR NO KEY UPDATE OF rr");
+            ps.setArray(1, con.createArrayOf("text", ordered.stream().map(id -> id.getReservedDate().toString()).toArray()));
+            ps.setArray(2, con.createArrayOf("int4", ordered.stream().map(ReservableRoomId::getRoomId).toArray()));
+            return ps;
+        }, PreparedStatement::execute);
+        databaseWait.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Lock several room-days against other threads of this node until the current transaction
+     * completes. Enough for writes whose first statement row-locks the room-days anyway.
+     *
+     * @param reservableRoomIds rooms and dates, in any order
+     */
+    public void lockLocally(Collection<ReservableRoomId> reservableRoomIds) {
+        lockStripes(ordered(reservableRoomIds));
+    }
+
+    private static TreeSet<ReservableRoomId> ordered(Collection<ReservableRoomId> reservableRoomIds) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Room-day locks must be taken inside a transaction");
+        }
+        TreeSet<ReservableRoomId> ordered = new TreeSet<>(LOCK_ORDER);
+        ordered.addAll(reservableRoomIds);
+        return ordered;
+    }
+
+    private void lockStripes(Collection<ReservableRoomId> ordered) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (ReservableRoomId id : ordered) {
+            indexes.add(Math.floorMod(id.hashCode(), stripes.length));
+        }
+
+        List<ReentrantLock> acquired = new ArrayList<>(indexes.size());
+        long started = System.nanoTime();
+        try {
+            for (int index : indexes) {
+                ReentrantLock lock = stripes[index];
+                if (!lock.tryLock(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    throw new CannotAcquireLockException("Timed out waiting for room-day lock");
+                }
+                acquired.add(lock);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired.forEach(ReentrantLock::unlock);
+            throw new CannotAcquireLockException("Interrupted while waiting for room-day lock", e);
+        } catch (RuntimeException e) {
+            acquired.forEach(ReentrantLock::unlock);
+            throw e;
+        } finally {
+            localWait.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                for (int i = acquired.size() - 1; i >= 0; i--) {
+                    acquired.get(i).unlock();
+                }
+            }
+        });
+    }
+
+    private double queueLength() {
+        int waiting = 0;
+        for (ReentrantLock stripe : stripes) {
+            waiting += stripe.getQueueLength();
+        }
+        return waiting;
+    }
+
+}
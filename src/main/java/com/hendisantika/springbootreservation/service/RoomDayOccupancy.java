@@ -0,0 +1,202 @@
+package com.hendisantika.springbootreservation.service;
+
+import com.hendisantika.springbootreservation.domain.ReservableRoomId;
+import com.hendisantika.springbootreservation.domain.TimeSlots;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Persisted occupancy bitmaps of room-days, {@code reservable_room.occupancy}.
+ * <p>
+ * The bitmap has one bit per half-hour slot (see {@link TimeSlots}) and is changed in the same
+ * transaction as the reservations it summarizes. Reserving sets the bits with a single conditional
+ * {@code UPDATE} that matches no row when any of them is already set, so a conflict is detected
+ * without reading {@code reservation}. The exclusion constraint on {@code reservation} stays the
+ * authority for rows written without going through this class.
+ * <p>
+ * Reserving and releasing increment the {@link RoomDayVersions version} of the room-day in the same
+ * statement, which also takes the row lock that serializes writers of the room-day across nodes.
+ * <p>
+ * The column is not mapped on {@link com.hendisantika.springbootreservation.domain.ReservableRoom},
+ * so the cached entities never go stale when it changes.
+ */
+@Component
+@RequiredArgsConstructor
+public class RoomDayOccupancy {
+
+    private static final String RESERVED_SLOTS = """
+            SELECT coalesce(bit_or((CAST(1 AS BIGINT) << CAST(EXTRACT(EPOCH FROM r.end_time) / 1800 AS INT))
+                                 - (CAST(1 AS BIGINT) << CAST(EXTRACT(EPOCH FROM r.start_time) / 1800 AS INT))), 0)
+              FROM reservation r
+             WHERE r.reserved_date = rr.reserved_date AND r.room_id = rr.room_id""";
+
+    private static final Comparator<Map.Entry<ReservableRoomId, Long>> ROW_ORDER = Map.Entry.comparingByKey(Comparator
+            .comparing(ReservableRoomId::getReservedDate)
+            .thenComparing(ReservableRoomId::getRoomId));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final RoomDayVersions versions;
+
+    /**
+     * Mark slots of a room-day as reserved unless any of them already is. Must be called inside the
+     * reserving transaction.
+     *
+     * @param reservableRoomId room and date
+     * @param mask             slots to reserve
+     * @return {@code false} when a slot is taken or the room can not be reserved on that date
+     */
+    public boolean occupy(ReservableRoomId reservableRoomId, long mask) {
+        boolean occupied = jdbcTemplate.update("UPDATE reservable_room SET occupancy = occupancy | ?, version = version + 1 "
+                        + "WHERE reserved_date = ? AND room_id = ? AND occupancy & ? = 0",
+                mask, reservableRoomId.getReservedDate(), reservableRoomId.getRoomId(), mask) == 1;
+        if (occupied) {
+            versions.evictAfterCommit(List.of(reservableRoomId));
+        }
+        return occupied;
+    }
+
+    /**
+     * Mark slots of several room-days as reserved with a single statement. Each room-day is only
+     * changed when none of its slots is taken yet. Must be called inside the reserving transaction.
+     *
+     * @param masks slots to reserve by room and date
+     * @return the room-days that were changed; the others have a slot taken or can not be reserved
+     */
+    public Set<ReservableRoomId> occupyAll(Map<ReservableRoomId, Long> masks) {
+        Set<ReservableRoomId> occupied = new HashSet<>();
+        if (masks.isEmpty()) {
+            return occupied;
+        }
+        //Row locks are taken in array order, the same order as the room-day locks
+        List<Map.Entry<ReservableRoomId, Long>> entries = masks.entrySet().stream().sorted(ROW_ORDER).toList();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("UPDATE reservable_room rr SET occupancy = rr.occupancy | t.mask, "
+                    + "version = rr.version + 1 "
+                    + "FROM unnest(CAST(? AS date[]), CAST(? AS int4[]), CAST(? AS int8[])) AS t(reserved_date, room_id, mask) "
+                    + "WHERE rr.reserved_date = t.reserved_date AND rr.room_id = t.room_id AND rr.occupancy & t.mask = 0 "
+                    + "RETURNING rr.reserved_date, rr.room_id");
+            ps.setArray(1, con.createArrayOf("text", entries.stream().map(e -> e.getKey().getReservedDate().toString()).toArray()));
+            ps.setArray(2, con.createArrayOf("int4", entries.stream().map(e -> e.getKey().getRoomId()).toArray()));
+            ps.setArray(3, con.createArrayOf("int8", entries.stream().map(Map.Entry::getValue).toArray()));
+            return ps;
+        }, rs -> {
+            occupied.add(new ReservableRoomId(rs.getInt("room_id"), rs.getObject("reserved_date", LocalDate.class)));
+        });
+        versions.evictAfterCommit(occupied);
+        return occupied;
+    }
+
+    /**
+     * Mark slots of several room-days as free with a single statement, e.g. after a bulk cancellation.
+     * Must be called inside the cancelling transaction.
+     *
+     * @param masks slots to release by room and date
+     */
+    public void releaseAll(Map<ReservableRoomId, Long> masks) {
+        if (masks.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<ReservableRoomId, Long>> entries = List.copyOf(masks.entrySet());
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("UPDATE reservable_room rr SET occupancy = rr.occupancy & ~t.mask, "
+                    + "version = rr.version + 1 "
+                    + "FROM unnest(CAST(? AS date[]), CAST(? AS int4[]), CAST(? AS int8[])) AS t(reserved_date, room_id, mask) "
+                    + "WHERE rr.reserved_date = t.reserved_date AND rr.room_id = t.room_id");
+            ps.setArray(1, con.createArrayOf("text", entries.stream().map(e -> e.getKey().getReservedDate().toString()).toArray()));
+            ps.setArray(2, con.createArrayOf("int4", entries.stream().map(e -> e.getKey().getRoomId()).toArray()));
+            ps.setArray(3, con.createArrayOf("int8", entries.stream().map(Map.Entry::getValue).toArray()));
+            return ps;
+        });
+        versions.evictAfterCommit(List.copyOf(masks.keySet()));
+    }
+
+    /**
+     * Return the occupancy of a room-day.
+     *
+     * @param reservableRoomId room and date
+     * @return bitmap of reserved slots, or {@code null} when the room can not be reserved on that date
+     */
+    public Long find(ReservableRoomId reservableRoomId) {
+        List<Long> bitmaps = jdbcTemplate.queryForList(
+                "SELECT occupancy FROM reservable_room WHERE reserved_date = ? AND room_id = ?", Long.class,
+                reservableRoomId.getReservedDate(), reservableRoomId.getRoomId());
+        return bitmaps.isEmpty() ? null : bitmaps.getFirst();
+    }
+
+    /**
+     * Return the occupancy of every room-day in a date range.
+     *
+     * @param from first date, inclusive
+     * @param to   last date, inclusive
+     * @return bitmaps of reserved slots by room and date
+     */
+    public Map<ReservableRoomId, Long> findBetween(LocalDate from, LocalDate to) {
+        Map<ReservableRoomId, Long> bitmaps = new HashMap<>();
+        jdbcTemplate.query("SELECT reserved_date, room_id, occupancy FROM reservable_room WHERE reserved_date BETWEEN ? AND ?",
+                rs -> {
+                    bitmaps.put(new ReservableRoomId(rs.getInt("room_id"), rs.getObject("reserved_date", LocalDate.class)),
+                            rs.getLong("occupancy"));
+                }, from, to);
+        return bitmaps;
+    }
+
+    /**
+     * Return the occupancy of a room on several dates.
+     *
+     * @param roomId meeting room id
+     * @param dates  dates to look up
+     * @return bitmaps of reserved slots by date; dates the room can not be reserved on are missing
+     */
+    public Map<LocalDate, Long> findByRoom(Integer roomId, Collection<LocalDate> dates) {
+        Map<LocalDate, Long> bitmaps = new HashMap<>();
+        if (dates.isEmpty()) {
+            return bitmaps;
+        }
+        String[] reservedDates = dates.stream().map(LocalDate::toString).toArray(String[]::new);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT reserved_date, occupancy FROM reservable_room "
+                    + "WHERE room_id = ? AND reserved_date = ANY (CAST(? AS date[]))");
+            ps.setInt(1, roomId);
+            ps.setArray(2, con.createArrayOf("text", reservedDates));
+            return ps;
+        }, rs -> {
+            bitmaps.put(rs.getObject("reserved_date", LocalDate.class), rs.getLong("occupancy"));
+        });
+        return bitmaps;
+    }
+
+    /**
+     * Recompute the occupancy of room-days from their reservations with a single statement, e.g.
+     * after reservations were inserted in bulk. Must be called while holding their room-day locks.
+     *
+     * @param reservableRoomIds rooms and dates
+     */
+    public void refresh(Collection<ReservableRoomId> reservableRoomIds) {
+        if (reservableRoomIds.isEmpty()) {
+            return;
+        }
+        String[] reservedDates = reservableRoomIds.stream().map(id -> id.getReservedDate().toString()).toArray(String[]::new);
+        Integer[] roomIds = reservableRoomIds.stream().map(ReservableRoomId::getRoomId).toArray(Integer[]::new);
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("UPDATE reservable_room rr SET occupancy = (" + RESERVED_SLOTS + ") "
+                    + "FROM unnest(CAST(? AS date[]), CAST(? AS int4[])) AS t(reserved_date, room_id) "
+                    + "WHERE rr.reserved_date = t.reserved_date AND rr.room_id = t.room_id");
+            ps.setArray(1, con.createArrayOf("text", reservedDates));
+            ps.setArray(2, con.createArrayOf("int4", roomIds));
+            return ps;
+        });
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.hendisantika.springbootreservation.service;
+
+import com.hendisantika.springbootreservation.domain.ReservableRoomId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Version counters of room-days and dates, used as ETags of the room and reservation views.
+ * <p>
+ * Every reservation or cancellation increments {@code reservable_room.version} of its room-day in
+ * the statement that changes its {@link RoomDayOccupancy occupancy}, so the counter grows
+ * monotonically. The version of a date combines the number of its room-days with the sum of their
+ * counters.
+ * <p>
+ * Versions are cached for a short time so that polling clients are answered without a query.
+ * Bumps made on this node drop the cached value right after commit; bumps made on other nodes become
+ * visible once the cached value expires. Versions are read in read-only transactions, so they come
+ * from the same database as the views they tag, even when that is a lagging replica.
+ */
+@Component
+public class RoomDayVersions {
+
+    private static final int MAX_CACHED = 10_000;
+
+    private final ConcurrentMap<ReservableRoomId, Cached> roomDays = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<LocalDate, Cached> dates = new ConcurrentHashMap<>();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final long ttlNanos;
+
+    public RoomDayVersions(JdbcTemplate jdbcTemplate,
+                           @Value("${reservation.versions.ttl:1s}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Return the version of a room-day.
+     *
+     * @param reservableRoomId room and date
+     * @return version tag, or {@code null} when the room can not be reserved on that date
+     */
+    @Transactional(readOnly = true)
+    public String roomDayVersion(ReservableRoomId reservableRoomId) {
+        Cached cached = roomDays.get(reservableRoomId);
+        if (cached != null && !cached.isExpired()) {
+            return cached.version();
+        }
+        List<Long> versions = jdbcTemplate.queryForList(
+                "SELECT version FROM reservable_room WHERE reserved_date = ? AND room_id = ?", Long.class,
+                reservableRoomId.getReservedDate(), reservableRoomId.getRoomId());
+        if (versions.isEmpty()) {
+            return null;
+        }
+        return put(roomDays, reservableRoomId, roomDayTag(reservableRoomId, versions.getFirst()));
+    }
+
+    /**
+     * Return the version of all room-days of a date.
+     *
+     * @param date the date
+     * @return version tag
+     */
+    @Transactional(readOnly = true)
+    public String dateVersion(LocalDate date) {
+        Cached cached = dates.get(date);
+        if (cached != null && !cached.isExpired()) {
+            return cached.version();
+        }
+        String version = jdbcTemplate.queryForObject(
+                "SELECT count(*)::text || '.' || coalesce(sum(version), 0) FROM reservable_room WHERE reserved_date = ?",
+                String.class, date);
+        return put(dates, date, date + "." + version);
+    }
+
+    /**
+     * Increment the versions of several room-days with a single statement, e.g. after a bulk change
+     * that was not made under room-day locks.
+     *
+     * @param reservableRoomIds rooms and dates
+     */
+    public void bumpAll(Collection<ReservableRoomId> reservableRoomIds) {
+        if (reservableRoomIds.isEmpty()) {
+            return;
+        }
+        String[] reservedDates = reservableRoomIds.stream().map(id -> id.getReservedDate().toString()).toArray(String[]::new);
+        Integer[] roomIds = reservableRoomIds.stream().map(ReservableRoomId::getRoomId).toArray(Integer[]::new);
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("UPDATE reservable_room rr SET version = rr.version + 1 "
+                    + "FROM unnest(CAST(? AS date[]), CAST(? AS int4[])) AS t(reserved_date, room_id) "
+                    + "WHERE rr.reserved_date = t.reserved_date AND rr.room_id = t.room_id");
+            ps.setArray(1, con.createArrayOf("text", reservedDates));
+            ps.setArray(2, con.createArrayOf("int4", roomIds));
+            return ps;
+        });
+        evictAfterCommit(List.copyOf(reservableRoomIds));
+    }
+
+    /**
+     * Drop the cached versions of room-days once the current transaction has committed, for changes
+     * that incremented the version themselves.
+     *
+     * @param reservableRoomIds rooms and dates
+     */
+    void evictAfterCommit(Collection<ReservableRoomId> reservableRoomIds) {
+        //Drop instead of publishing the new version, a replica may not serve the matching view yet
+        Runnable publish = () -> reservableRoomIds.forEach(id -> {
+            roomDays.remove(id);
+            dates.remove(id.getReservedDate());
+        });
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish.run();
+            }
+        });
+    }
+
+    private static String roomDayTag(ReservableRoomId reservableRoomId, long version) {
+        return reservableRoomId.getReservedDate() + "." + reservableRoomId.getRoomId() + "." + version;
+    }
+
+    private <K> String put(ConcurrentMap<K, Cached> cache, K key, String version) {
+        if (cache.size() >= MAX_CACHED) {
+            cache.values().removeIf(Cached::isExpired);
+        }
+        cache.put(key, new Cached(version, System.nanoTime() + ttlNanos));
+        return version;
+    }
+
+    private record Cached(String version, long expiresAt) {
+
+        boolean isExpired() {
+            return System.nanoTime() - expiresAt > 0;
+        }
+
+    }
+
+}
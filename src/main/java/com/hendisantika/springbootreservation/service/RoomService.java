@@ -1,7 +1,9 @@
 package com.hendisantika.springbootreservation.service;
 
 import com.hendisantika.springbootreservation.domain.MeetingRoom;
-import com.hendisantika.springbootreservation.domain.ReservableRoom;
+import com.hendisantika.springbootreservation.domain.TimeSlots;
+import com.hendisantika.springbootreservation.dto.DayGrid;
+import com.hendisantika.springbootreservation.dto.RoomOccupancy;
 import com.hendisantika.springbootreservation.repository.MeetingRoomRepository;
 import com.hendisantika.springbootreservation.repository.ReservableRoomRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +11,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,16 +34,58 @@ public class RoomService {
     @Autowired
     MeetingRoomRepository meetingRoomRepository;
 
-    public List<ReservableRoom> findReservableRooms(LocalDate date) {
+    /**
+     * Return the rooms that are reservable on the date together with their occupancy.
+     *
+     * @param date reservation date
+     * @return rooms ordered by room id
+     */
+    @Transactional(readOnly = true)
+    public List<RoomOccupancy> findReservableRooms(LocalDate date) {
 
-        return reservableRoomRepository.findByReservableRoomIdReservedDateOrderByReservableRoomIdRoomIdAsc(date);
+        return toOccupancy(reservableRoomRepository.findOccupancy(date));
 
     }
 
 
+    /**
+     * Return the rooms that are reservable on the date and free for the whole time range.
+     *
+     * @param date      reservation date
+     * @param startTime inclusive start of the requested range
+     * @param endTime   exclusive end of the requested range
+     * @return free rooms ordered by room id
+     */
+    @Transactional(readOnly = true)
+    public List<RoomOccupancy> findFreeRooms(LocalDate date, LocalTime startTime, LocalTime endTime) {
+
+        return toOccupancy(reservableRoomRepository.findFreeRooms(date, TimeSlots.mask(startTime, endTime)));
+
+    }
+
+    /**
+     * Return the occupancy of every reservable room of the date.
+     *
+     * @param date reservation date
+     * @return half-hour occupancy bitmaps of all rooms
+     */
+    @Transactional(readOnly = true)
+    public DayGrid findDayGrid(LocalDate date) {
+
+        return new DayGrid(date, toOccupancy(reservableRoomRepository.findOccupancy(date)));
+
+    }
+
+    @Transactional(readOnly = true)
     public Optional<MeetingRoom> findMeetingRoom(Long roomId) {
 
         return meetingRoomRepository.findById(Math.toIntExact(roomId));
     }
 
+    private static List<RoomOccupancy> toOccupancy(List<ReservableRoomRepository.OccupancyRow> rows) {
+        return rows.stream()
+                .map(row -> new RoomOccupancy(row.getRoomId(), row.getRoomName(), row.getOccupancy()))
+                .toList();
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,301 @@
+package com.hendisantika.springbootreservation.service;
+
+import com.hendisantika.springbootreservation.domain.ReservableRoomId;
+import com.hendisantika.springbootreservation.domain.TimeSlots;
+import com.hendisantika.springbootreservation.dto.ReservationChange;
+import com.hendisantika.springbootreservation.dto.ReservationSummary;
+import com.hendisantika.springbootreservation.dto.RoomUtilization;
+import com.hendisantika.springbootreservation.dto.UtilizationHeatmap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Room utilization per day, week and month, and peak-hour heatmaps, answered from the
+ * {@code room_day_utilization} aggregates instead of scanning {@code reservation}.
+ * <p>
+ * The aggregates are updated in the transaction that reserves or cancels, right before it commits,
+ * so they always match the committed reservations. All room-days changed by a transaction are
+ * written with one statement, so bulk reservations and cancellations cost a single upsert. Those
+ * writes already hold the room-day locks, so the upserted rows are not contended. Changes that bypass {@link ReservationService},
+ * such as bulk imports, refresh the affected room-days from the raw rows, and {@link #rebuild}
+ * recomputes a whole date range.
+ */
+@Slf4j
+@Service
+public class RoomUtilizationService {
+
+    private static final String AGGREGATE = """
+            SELECT reserved_date, room_id, count(*),
+                   sum(EXTRACT(EPOCH FROM end_time - start_time) / 60)::int,
+                   bit_or((CAST(1 AS BIGINT) << CAST(EXTRACT(EPOCH FROM end_time) / 1800 AS INT))
+                        - (CAST(1 AS BIGINT) << CAST(EXTRACT(EPOCH FROM start_time) / 1800 AS INT)))
+              FROM (SELECT reserved_date, room_id, start_time, end_time FROM reservation
+                    UNION ALL
+                    SELECT reserved_date, room_id, start_time, end_time FROM reservation_archive) r
+            """;
+
+    //Never below zero, e.g. for a cancellation of a room-day whose aggregate row does not exist
+    private static final String APPLY = """
+            WITH delta (reserved_date, room_id, reservations, booked_minutes, reserved_slots, released_slots) AS (
+                SELECT * FROM unnest(CAST(? AS date[]), CAST(? AS int4[]), CAST(? AS int4[]), CAST(? AS int4[]),
+                                     CAST(? AS int8[]), CAST(? AS int8[]))
+            )
+            INSERT INTO room_day_utilization AS u (reserved_date, room_id, reservations, booked_minutes, slots)
+            SELECT reserved_date, room_id, GREATEST(0, reservations), GREATEST(0, booked_minutes), reserved_slots FROM delta
+            ON CONFLICT (reserved_date, room_id) DO UPDATE
+               SET (reservations, booked_minutes, slots) = (
+                       SELECT GREATEST(0, u.reservations + d.reservations),
+                              GREATEST(0, u.booked_minutes + d.booked_minutes),
+                              (u.slots & ~d.released_slots) | d.reserved_slots
+                         FROM delta d
+                        WHERE d.reserved_date = u.reserved_date AND d.room_id = u.room_id)""";
+
+    private static final Comparator<ReservableRoomId> ROOM_DAY_ORDER = Comparator
+            .comparing(ReservableRoomId::getReservedDate)
+            .thenComparing(ReservableRoomId::getRoomId);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int rebuildBatchDays;
+
+    public RoomUtilizationService(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${reservation.utilization.rebuild-batch-days:31}") int rebuildBatchDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildBatchDays = rebuildBatchDays;
+    }
+
+    /**
+     * Add or remove a reservation to the aggregate of its room-day. Inside a transaction the changes
+     * are collected and written right before it commits, with one statement for all room-days.
+     *
+     * @param change reservation that was made or cancelled
+     */
+    @EventListener
+    public void onChange(ReservationChange change) {
+        ReservationSummary reservation = change.reservation();
+        ReservableRoomId reservableRoomId = new ReservableRoomId(reservation.roomId(), reservation.reservedDate());
+        long mask = TimeSlots.mask(reservation.startTime(), reservation.endTime());
+        int minutes = Math.toIntExact(Duration.between(reservation.startTime(), reservation.endTime()).toMinutes());
+        boolean reserved = change.type() == ReservationChange.Type.RESERVED;
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Map<ReservableRoomId, Delta> deltas = new TreeMap<>(ROOM_DAY_ORDER);
+            deltas.put(reservableRoomId, new Delta().add(reserved, minutes, mask));
+            apply(deltas);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<ReservableRoomId, Delta> pending = (Map<ReservableRoomId, Delta>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<ReservableRoomId, Delta> deltas = new TreeMap<>(ROOM_DAY_ORDER);
+            TransactionSynchronizationManager.bindResource(this, deltas);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    apply(deltas);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(RoomUtilizationService.this);
+                }
+            });
+            pending = deltas;
+        }
+        pending.computeIfAbsent(reservableRoomId, id -> new Delta()).add(reserved, minutes, mask);
+    }
+
+    /**
+     * Recompute the aggregates of room-days from their reservations, inside the current transaction.
+     *
+     * @param reservableRoomIds rooms and dates changed without going through {@link ReservationService}
+     */
+    public void refresh(Collection<ReservableRoomId> reservableRoomIds) {
+        if (reservableRoomIds.isEmpty()) {
+            return;
+        }
+        String[] reservedDates = reservableRoomIds.stream().map(id -> id.getReservedDate().toString()).toArray(String[]::new);
+        Integer[] roomIds = reservableRoomIds.stream().map(ReservableRoomId::getRoomId).toArray(Integer[]::new);
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("INSERT INTO room_day_utilization AS u "
+                    + "(reserved_date, room_id, reservations, booked_minutes, slots) " + AGGREGATE
+                    + " WHERE (reserved_date, room_id) IN (SELECT * FROM unnest(CAST(? AS date[]), CAST(? AS int4[])))"
+                    + " GROUP BY reserved_date, room_id"
+                    + " ON CONFLICT (reserved_date, room_id) DO UPDATE SET reservations = EXCLUDED.reservations,"
+                    + " booked_minutes = EXCLUDED.booked_minutes, slots = EXCLUDED.slots");
+            ps.setArray(1, con.createArrayOf("text", reservedDates));
+            ps.setArray(2, con.createArrayOf("int4", roomIds));
+            return ps;
+        });
+    }
+
+    /**
+     * Recompute all aggregates of a date range from the reservation and archive tables, in one
+     * transaction per batch of days. Each batch blocks reservations and cancellations only while it
+     * runs, so the totals they add on commit are neither lost nor counted twice.
+     *
+     * @param from first date, inclusive
+     * @param to   last date, inclusive
+     * @return number of room-days with reservations in the range
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    public long rebuild(LocalDate from, LocalDate to) {
+        long roomDays = 0;
+        for (LocalDate start = from; !start.isAfter(to); start = start.plusDays(rebuildBatchDays)) {
+            LocalDate end = start.plusDays(rebuildBatchDays - 1L);
+            LocalDate batchEnd = end.isAfter(to) ? to : end;
+            LocalDate batchStart = start;
+            roomDays += transactionTemplate.execute(status -> {
+                jdbcTemplate.execute("LOCK TABLE room_day_utilization IN SHARE ROW EXCLUSIVE MODE");
+                jdbcTemplate.update("DELETE FROM room_day_utilization WHERE reserved_date BETWEEN ? AND ?", batchStart, batchEnd);
+                return jdbcTemplate.update("INSERT INTO room_day_utilization (reserved_date, room_id, reservations, booked_minutes, slots) "
+                        + AGGREGATE + " WHERE reserved_date BETWEEN ? AND ? GROUP BY reserved_date, room_id", batchStart, batchEnd);
+            });
+        }
+        log.info("Rebuilt utilization from {} to {}: {} room-days", from, to, roomDays);
+        return roomDays;
+    }
+
+    /**
+     * Return the utilization of every room per period, ordered by period and room.
+     *
+     * @param from        first date, inclusive
+     * @param to          last date, inclusive
+     * @param granularity length of the periods
+     * @param roomId      only this room, or all rooms when {@code null}
+     * @return one row per room and period; rooms without reservations in a period are left out
+     */
+    @Transactional(readOnly = true)
+    public List<RoomUtilization> findUtilization(LocalDate from, LocalDate to, UtilizationGranularity granularity, Integer roomId) {
+        // The share of a period is taken over its days inside the requested range
+        String sql = """
+                SELECT u.room_id, m.room_name, p.period_start, sum(u.reservations) AS reservations,
+                       sum(u.booked_minutes) AS booked_minutes,
+                       sum(u.booked_minutes)::float8 / (1440 * (LEAST(p.period_end, ?::date + 1) - GREATEST(p.period_start, ?::date))) AS occupancy
+                  FROM room_day_utilization u
+                  JOIN meeting_room m ON m.room_id = u.room_id
+                 CROSS JOIN LATERAL (SELECT date_trunc('%1$s', u.reserved_date)::date AS period_start,
+                                            (date_trunc('%1$s', u.reserved_date) + interval '1 %1$s')::date AS period_end) p
+                 WHERE u.reserved_date BETWEEN ? AND ?
+                """.formatted(granularity.field());
+        List<Object> args = new ArrayList<>(List.of(to, from, from, to));
+        if (roomId != null) {
+            sql += " AND u.room_id = ?";
+            args.add(roomId);
+        }
+        sql += " GROUP BY u.room_id, m.room_name, p.period_start, p.period_end ORDER BY p.period_start, u.room_id";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new RoomUtilization(
+                rs.getInt("room_id"),
+                rs.getString("room_name"),
+                rs.getObject("period_start", LocalDate.class),
+                rs.getLong("reservations"),
+                rs.getLong("booked_minutes"),
+                rs.getDouble("occupancy")), args.toArray());
+    }
+
+    /**
+     * Return how often each half-hour slot of each weekday was reserved.
+     *
+     * @param from   first date, inclusive
+     * @param to     last date, inclusive
+     * @param roomId only this room, or all rooms when {@code null}
+     * @return counts per weekday and slot
+     */
+    @Transactional(readOnly = true)
+    public UtilizationHeatmap findHeatmap(LocalDate from, LocalDate to, Integer roomId) {
+        List<long[]> counts = new ArrayList<>(7);
+        for (int day = 0; day < 7; day++) {
+            counts.add(new long[TimeSlots.SLOTS_PER_DAY]);
+        }
+        String sql = """
+                SELECT EXTRACT(ISODOW FROM u.reserved_date)::int AS weekday, s.slot, count(*) AS reserved
+                  FROM room_day_utilization u
+                 CROSS JOIN generate_series(0, 47) AS s(slot)
+                 WHERE u.reserved_date BETWEEN ? AND ?
+                   AND (u.slots >> s.slot) & 1 = 1
+                """;
+        List<Object> args = new ArrayList<>(List.of(from, to));
+        if (roomId != null) {
+            sql += " AND u.room_id = ?";
+            args.add(roomId);
+        }
+        sql += " GROUP BY weekday, s.slot";
+        jdbcTemplate.query(sql, rs -> {
+            counts.get(rs.getInt("weekday") - 1)[rs.getInt("slot")] = rs.getLong("reserved");
+        }, args.toArray());
+        return new UtilizationHeatmap(from, to, roomId, counts);
+    }
+
+    private void apply(Map<ReservableRoomId, Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        //Rows are locked in room-day order, so concurrent transactions can not deadlock on them
+        List<Map.Entry<ReservableRoomId, Delta>> entries = List.copyOf(deltas.entrySet());
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(APPLY);
+            ps.setArray(1, con.createArrayOf("text", entries.stream().map(e -> e.getKey().getReservedDate().toString()).toArray()));
+            ps.setArray(2, con.createArrayOf("int4", entries.stream().map(e -> e.getKey().getRoomId()).toArray()));
+            ps.setArray(3, con.createArrayOf("int4", entries.stream().map(e -> e.getValue().reservations).toArray()));
+            ps.setArray(4, con.createArrayOf("int4", entries.stream().map(e -> e.getValue().minutes).toArray()));
+            ps.setArray(5, con.createArrayOf("int8", entries.stream().map(e -> e.getValue().reservedSlots).toArray()));
+            ps.setArray(6, con.createArrayOf("int8", entries.stream().map(e -> e.getValue().releasedSlots).toArray()));
+            return ps;
+        });
+    }
+
+    /**
+     * Changes of one room-day within a transaction. Slots are applied in order, so a slot that is
+     * released and reserved again ends up reserved and vice versa.
+     */
+    private static final class Delta {
+
+        private int reservations;
+
+        private int minutes;
+
+        private long reservedSlots;
+
+        private long releasedSlots;
+
+        Delta add(boolean reserved, int bookedMinutes, long mask) {
+            if (reserved) {
+                reservations++;
+                minutes += bookedMinutes;
+                reservedSlots |= mask;
+                releasedSlots &= ~mask;
+            } else {
+                reservations--;
+                minutes -= bookedMinutes;
+                releasedSlots |= mask;
+                reservedSlots &= ~mask;
+            }
+            return this;
+        }
+
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.hendisantika.springbootreservation.service;
+
+import java.sql.SQLException;
+
+/**
+ * PostgreSQL error codes the services translate into business exceptions.
+ */
+final class SqlStates {
+
+    static final String FOREIGN_KEY_VIOLATION = "23503";
+
+    static final String EXCLUSION_VIOLATION = "23P01";
+
+    private SqlStates() {
+    }
+
+    /**
+     * Return whether the given exception or one of its causes carries the given SQL state.
+     *
+     * @param throwable exception thrown by the persistence layer
+     * @param sqlState  five character SQL state
+     * @return {@code true} when the state was found in the cause chain
+     */
+    static boolean hasSqlState(Throwable throwable, String sqlState) {
+        for (Throwable t = throwable; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sqlException) {
+                for (SQLException e = sqlException; e != null; e = e.getNextException()) {
+                    if (sqlState.equals(e.getSQLState())) {
+                        return true;
+                    }
+                }
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.hendisantika.springbootreservation.service;
+
+import com.hendisantika.springbootreservation.exception.UnsupportedTransferFormatException;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Line-oriented file formats of reservation exports and imports.
+ */
+public enum TransferFormat {
+
+    CSV(new MediaType("text", "csv")),
+    NDJSON(MediaType.APPLICATION_NDJSON);
+
+    /**
+     * CSV header, also the column order of exported rows.
+     */
+    static final String CSV_HEADER = "reservation_id,reserved_date,room_id,start_time,end_time,user_id";
+
+    private final MediaType mediaType;
+
+    TransferFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Return the format of a content type.
+     *
+     * @param contentType content type of a request
+     * @return the matching format
+     * @throws UnsupportedTransferFormatException when the content type is neither CSV nor NDJSON
+     */
+    public static TransferFormat of(MediaType contentType) {
+        for (TransferFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(contentType)) {
+                return format;
+            }
+        }
+        throw new UnsupportedTransferFormatException("Unsupported content type: " + contentType);
+    }
+
+    /**
+     * Return the format of a name, ignoring case.
+     *
+     * @param name e.g. {@code csv} or {@code ndjson}
+     * @return the matching format
+     * @throws UnsupportedTransferFormatException when the name is neither CSV nor NDJSON
+     */
+    public static TransferFormat named(String name) {
+        for (TransferFormat format : values()) {
+            if (format.name().equals(name.trim().toUpperCase(Locale.ROOT))) {
+                return format;
+            }
+        }
+        throw new UnsupportedTransferFormatException("Unsupported format: " + name);
+    }
+
+    /**
+     * Return the file name extension of the format.
+     */
+    public String getExtension() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Quote a CSV field when it contains a separator, quote or line break.
+     */
+    static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Split a CSV line into its fields, unquoting quoted fields.
+     */
+    static List<String> csvFields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+}
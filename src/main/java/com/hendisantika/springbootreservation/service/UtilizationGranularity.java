@@ -0,0 +1,19 @@
+package com.hendisantika.springbootreservation.service;
+
+import java.util.Locale;
+
+/**
+ * Length of the periods a utilization report is grouped by. Weeks start on Monday.
+ */
+public enum UtilizationGranularity {
+
+    DAY, WEEK, MONTH;
+
+    /**
+     * Return the field name of {@code date_trunc} for this granularity.
+     */
+    String field() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+}
@@ -0,0 +1,68 @@
+-- Store reservations in monthly range partitions of reserved_date, so queries of a date only
+-- touch the partition of its month and past months can be detached and archived as a whole.
+-- Partitions are created ahead of time by the application; the default partition only catches
+-- dates that have no partition yet.
+
+-- The sequence would be dropped together with the old table
+ALTER SEQUENCE reservation_id_seq OWNED BY NONE;
+
+CREATE TABLE reservation_partitioned (
+  reservation_id INT4 NOT NULL DEFAULT nextval('reservation_id_seq'),
+  end_time TIME NOT NULL,
+  start_time TIME NOT NULL,
+  reserved_date DATE NOT NULL,
+  room_id INT4 NOT NULL,
+  user_id VARCHAR(255) NOT NULL,
+  series_id INT4
+) PARTITION BY RANGE (reserved_date);
+
+CREATE TABLE reservation_default PARTITION OF reservation_partitioned DEFAULT;
+
+DO $$
+DECLARE
+  first_month DATE := date_trunc('month', LEAST(COALESCE((SELECT MIN(reserved_date) FROM reservation), CURRENT_DATE), CURRENT_DATE));
+  last_month DATE := date_trunc('month', CURRENT_DATE + interval '4 months');
+  m DATE;
+BEGIN
+  FOR m IN SELECT generate_series(first_month, last_month, interval '1 month')::date LOOP
+    EXECUTE format('CREATE TABLE %I PARTITION OF reservation_partitioned FOR VALUES FROM (%L) TO (%L)',
+                   'reservation_p' || to_char(m, 'YYYYMM'), m, (m + interval '1 month')::date);
+  END LOOP;
+END
+$$;
+
+INSERT INTO reservation_partitioned (reservation_id, end_time, start_time, reserved_date, room_id, user_id, series_id)
+SELECT reservation_id, end_time, start_time, reserved_date, room_id, user_id, series_id FROM reservation;
+
+DROP TABLE reservation;
+ALTER TABLE reservation_partitioned RENAME TO reservation;
+ALTER TABLE reservation_default RENAME TO reservation_pdefault;
+ALTER SEQUENCE reservation_id_seq OWNED BY reservation.reservation_id;
+
+-- The primary key of a partitioned table has to contain the partition key;
+-- reservation_id alone stays unique because it is only ever taken from the sequence
+ALTER TABLE reservation ADD CONSTRAINT reservation_pkey PRIMARY KEY (reservation_id, reserved_date);
+ALTER TABLE reservation ADD CONSTRAINT FK_p1k4iriqd4eo1cpnv79uvni9g FOREIGN KEY (reserved_date, room_id) REFERENCES reservable_room;
+ALTER TABLE reservation ADD CONSTRAINT FK_recqnfjcp370rygd9hjjxjtg FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE reservation ADD CONSTRAINT FK_reservation_series FOREIGN KEY (series_id) REFERENCES reservation_series ON DELETE SET NULL;
+ALTER TABLE reservation
+  ADD CONSTRAINT reservation_no_overlap EXCLUDE USING gist (
+    room_id WITH =,
+    reserved_date WITH =,
+    tsrange(reserved_date + start_time, reserved_date + end_time, '[)') WITH &&
+  );
+CREATE INDEX reservation_room_day_idx ON reservation (reserved_date, room_id, start_time);
+CREATE INDEX reservation_user_history_idx ON reservation (user_id, reserved_date, start_time, reservation_id);
+
+-- Reservations of detached partitions: no constraints and a BRIN index only, as the rows arrive in
+-- date order and are read by date range for reporting
+CREATE TABLE reservation_archive (
+  reservation_id INT4 NOT NULL,
+  reserved_date DATE NOT NULL,
+  room_id INT4 NOT NULL,
+  start_time TIME NOT NULL,
+  end_time TIME NOT NULL,
+  user_id VARCHAR(255) NOT NULL,
+  series_id INT4
+);
+CREATE INDEX reservation_archive_date_idx ON reservation_archive USING brin (reserved_date);
@@ -0,0 +1,21 @@
+-- Reservation totals per room-day for utilization reports, maintained by the application in the
+-- transactions that reserve and cancel. slots has bit n set when half-hour slot n is reserved.
+-- There are no foreign keys, so the totals outlive archived reservations and pruned room-days.
+CREATE TABLE IF NOT EXISTS room_day_utilization (
+  reserved_date DATE NOT NULL,
+  room_id INT4 NOT NULL,
+  reservations INT4 NOT NULL,
+  booked_minutes INT4 NOT NULL,
+  slots BIGINT NOT NULL,
+  PRIMARY KEY (reserved_date, room_id)
+);
+
+INSERT INTO room_day_utilization (reserved_date, room_id, reservations, booked_minutes, slots)
+SELECT reserved_date, room_id, count(*),
+       sum(EXTRACT(EPOCH FROM end_time - start_time) / 60)::int,
+       bit_or((CAST(1 AS BIGINT) << CAST(EXTRACT(EPOCH FROM end_time) / 1800 AS INT))
+            - (CAST(1 AS BIGINT) << CAST(EXTRACT(EPOCH FROM start_time) / 1800 AS INT)))
+  FROM (SELECT reserved_date, room_id, start_time, end_time FROM reservation
+        UNION ALL
+        SELECT reserved_date, room_id, start_time, end_time FROM reservation_archive) r
+ GROUP BY reserved_date, room_id;
@@ -0,0 +1,14 @@
+-- Reserved half-hour slots of the room-day, bit n covering [n * 30min, (n + 1) * 30min); updated together with
+-- reservation by every reservation and cancellation, so availability is answered from reservable_room alone
+ALTER TABLE reservable_room ADD COLUMN occupancy BIGINT NOT NULL DEFAULT 0
+    CONSTRAINT reservable_room_occupancy_slots CHECK (occupancy >= 0 AND occupancy < CAST(1 AS BIGINT) << 48);
+
+UPDATE reservable_room rr
+   SET occupancy = r.occupancy
+  FROM (SELECT reserved_date, room_id,
+               bit_or((CAST(1 AS BIGINT) << CAST(EXTRACT(EPOCH FROM end_time) / 1800 AS INT))
+                    - (CAST(1 AS BIGINT) << CAST(EXTRACT(EPOCH FROM start_time) / 1800 AS INT))) AS occupancy
+          FROM reservation
+         GROUP BY reserved_date, room_id) r
+ WHERE rr.reserved_date = r.reserved_date
+   AND rr.room_id = r.room_id;
@@ -0,0 +1,35 @@
+-- Announce every committed insert and delete of reservation on the reservation_change channel, so each node can push
+-- changes made on any node to its event stream subscribers. NOTIFY is delivered on commit only, in commit order.
+-- Payloads must stay below 8000 bytes; a statement that changed too many rows only names the dates whose subscribers
+-- have to reload, or no dates at all when even those do not fit.
+CREATE FUNCTION notify_reservation_change() RETURNS trigger LANGUAGE plpgsql AS $$
+DECLARE
+  payload TEXT;
+BEGIN
+  IF NOT EXISTS (SELECT 1 FROM changed) THEN
+    RETURN NULL;
+  END IF;
+  SELECT json_build_object('changes', json_agg(json_build_object(
+           'type', CASE TG_OP WHEN 'INSERT' THEN 'RESERVED' ELSE 'CANCELLED' END,
+           'reservation', json_build_object('reservationId', reservation_id, 'roomId', room_id,
+                                            'reservedDate', reserved_date, 'startTime', start_time,
+                                            'endTime', end_time))))::text
+    INTO payload FROM changed;
+  IF octet_length(payload) >= 8000 THEN
+    SELECT json_build_object('resync', json_agg(DISTINCT reserved_date))::text INTO payload FROM changed;
+  END IF;
+  IF octet_length(payload) >= 8000 THEN
+    payload := '{}';
+  END IF;
+  PERFORM pg_notify('reservation_change', payload);
+  RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER reservation_inserted AFTER INSERT ON reservation
+  REFERENCING NEW TABLE AS changed
+  FOR EACH STATEMENT EXECUTE FUNCTION notify_reservation_change();
+
+CREATE TRIGGER reservation_deleted AFTER DELETE ON reservation
+  REFERENCING OLD TABLE AS changed
+  FOR EACH STATEMENT EXECUTE FUNCTION notify_reservation_change();
@@ -0,0 +1,11 @@
+-- Reject overlapping reservations of the same room and date in the database,
+-- so concurrent bookings cannot both pass the check in the application.
+-- btree_gist provides GiST operator classes for the scalar equality columns.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE reservation
+  ADD CONSTRAINT reservation_no_overlap EXCLUDE USING gist (
+    room_id WITH =,
+    reserved_date WITH =,
+    tsrange(reserved_date + start_time, reserved_date + end_time, '[)') WITH &&
+  );
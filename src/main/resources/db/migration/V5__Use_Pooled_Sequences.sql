@@ -0,0 +1,14 @@
+-- Replace the SERIAL sequences of reservation and meeting_room with sequences
+-- incremented by 50, so Hibernate can allocate ids with the pooled optimizer
+-- and batch inserts instead of reading back one IDENTITY value per row.
+CREATE SEQUENCE reservation_id_seq INCREMENT BY 50;
+SELECT setval('reservation_id_seq', COALESCE((SELECT MAX(reservation_id) FROM reservation), 0) + 50, false);
+ALTER TABLE reservation ALTER COLUMN reservation_id SET DEFAULT nextval('reservation_id_seq');
+ALTER SEQUENCE reservation_id_seq OWNED BY reservation.reservation_id;
+DROP SEQUENCE IF EXISTS reservation_reservation_id_seq;
+
+CREATE SEQUENCE meeting_room_id_seq INCREMENT BY 50;
+SELECT setval('meeting_room_id_seq', COALESCE((SELECT MAX(room_id) FROM meeting_room), 0) + 50, false);
+ALTER TABLE meeting_room ALTER COLUMN room_id SET DEFAULT nextval('meeting_room_id_seq');
+ALTER SEQUENCE meeting_room_id_seq OWNED BY meeting_room.room_id;
+DROP SEQUENCE IF EXISTS meeting_room_room_id_seq;
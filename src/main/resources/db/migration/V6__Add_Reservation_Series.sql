@@ -0,0 +1,18 @@
+CREATE SEQUENCE reservation_series_id_seq INCREMENT BY 50;
+CREATE TABLE IF NOT EXISTS reservation_series (
+  series_id INT4 NOT NULL DEFAULT nextval('reservation_series_id_seq'),
+  room_id INT4 NOT NULL,
+  user_id VARCHAR(255) NOT NULL,
+  recurrence VARCHAR(16) NOT NULL,
+  first_date DATE NOT NULL,
+  occurrences INT4 NOT NULL,
+  start_time TIME NOT NULL,
+  end_time TIME NOT NULL,
+  PRIMARY KEY (series_id)
+);
+ALTER SEQUENCE reservation_series_id_seq OWNED BY reservation_series.series_id;
+ALTER TABLE reservation_series ADD CONSTRAINT FK_reservation_series_room FOREIGN KEY (room_id) REFERENCES meeting_room;
+ALTER TABLE reservation_series ADD CONSTRAINT FK_reservation_series_user FOREIGN KEY (user_id) REFERENCES users;
+
+ALTER TABLE reservation ADD COLUMN series_id INT4;
+ALTER TABLE reservation ADD CONSTRAINT FK_reservation_series FOREIGN KEY (series_id) REFERENCES reservation_series ON DELETE SET NULL;
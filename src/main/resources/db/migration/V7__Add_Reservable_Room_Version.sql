@@ -0,0 +1,4 @@
+-- Bumped on every reservation and cancellation of a room-day; drives the ETags of the room and reservation views
+ALTER TABLE reservable_room ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+-- Leave room on each page so the frequent version updates stay heap-only
+ALTER TABLE reservable_room SET (fillfactor = 90);
@@ -0,0 +1,2 @@
+-- Reservable dates are generated by the application on a rolling horizon
+DROP FUNCTION IF EXISTS REGISTER_RESERVABLE_ROOMS();
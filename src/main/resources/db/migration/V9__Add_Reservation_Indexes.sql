@@ -0,0 +1,4 @@
+-- Listing and conflict checks of a room-day, in start time order
+CREATE INDEX IF NOT EXISTS reservation_room_day_idx ON reservation (reserved_date, room_id, start_time);
+-- Reservation history of a user in date and time order; the leading user_id also serves the foreign key to users
+CREATE INDEX IF NOT EXISTS reservation_user_history_idx ON reservation (user_id, reserved_date, start_time, reservation_id);
@@ -0,0 +1,69 @@
+package com.hendisantika.springbootreservation;
+
+import com.hendisantika.springbootreservation.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Password hashes made with another BCrypt cost than the configured one are replaced on login.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+class PasswordUpgradeTests {
+
+    private static final String USER_ID = "sakura";
+
+    // Cost 12, as seeded
+    private static final String SEEDED_HASH = "$2a$12$46n/3m5nEnMEcLGsTqbHB.GAqAlD9Kn7e.ByowdRkcmkBM8elTL9e";
+
+    @Autowired
+    AuthenticationManager authenticationManager;
+
+    @Autowired
+    PasswordEncoder passwordEncoder;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @BeforeEach
+    void restoreSeededHash() {
+        jdbcTemplate.update("UPDATE users SET password = ? WHERE user_id = ?", SEEDED_HASH, USER_ID);
+        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_CACHE)).clear();
+    }
+
+    @Test
+    void outdatedHashesAreReplacedOnLogin() {
+        assertThat(passwordEncoder.upgradeEncoding(SEEDED_HASH)).isTrue();
+
+        authenticationManager.authenticate(UsernamePasswordAuthenticationToken.unauthenticated(USER_ID, "password"));
+
+        String stored = storedHash();
+        assertThat(stored).startsWith("{bcrypt}$2a$10$");
+        assertThat(passwordEncoder.upgradeEncoding(stored)).isFalse();
+        assertThat(passwordEncoder.matches("password", stored)).isTrue();
+
+        authenticationManager.authenticate(UsernamePasswordAuthenticationToken.unauthenticated(USER_ID, "password"));
+
+        assertThat(storedHash()).isEqualTo(stored);
+    }
+
+    private String storedHash() {
+        return jdbcTemplate.queryForObject("SELECT password FROM users WHERE user_id = ?", String.class, USER_ID);
+    }
+
+}
@@ -0,0 +1,205 @@
+package com.hendisantika.springbootreservation;
+
+import com.hendisantika.springbootreservation.domain.ReservableRoomId;
+import com.hendisantika.springbootreservation.domain.Reservation;
+import com.hendisantika.springbootreservation.domain.User;
+import com.hendisantika.springbootreservation.service.ReservationAvailabilityIndex;
+import com.hendisantika.springbootreservation.service.ReservationService;
+import com.hendisantika.springbootreservation.service.ReservationUserDetails;
+import com.hendisantika.springbootreservation.service.RoomService;
+import com.hendisantika.springbootreservation.util.ReservationTestSupport;
+import com.hendisantika.springbootreservation.util.SqlStatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SQL statement budgets of the endpoints and service calls. Every statement sent through the
+ * {@code DataSource} counts, from Hibernate and from {@code JdbcTemplate} alike, as it does for the
+ * {@code reservation.request.statements} metric. Every measurement
+ * starts with empty second-level cache, availability index and room-day versions, so the budgets
+ * are worst cases. A request that exceeds its budget fails with the statements it issued.
+ */
+@SpringBootTest(properties = "reservation.versions.ttl=0s")
+@Import(TestcontainersConfiguration.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetTests {
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(30);
+
+    private static final int ROOM_ID = 1;
+
+    private static final ReservableRoomId ROOM_DAY = new ReservableRoomId(ROOM_ID, DATE);
+
+    @Autowired
+    WebApplicationContext context;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    ReservationService reservationService;
+
+    @Autowired
+    RoomService roomService;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    ReservationAvailabilityIndex availabilityIndex;
+
+    private ReservationTestSupport support;
+
+    private MockMvc mockMvc;
+
+    private ReservationUserDetails naruto;
+
+    @BeforeAll
+    void setUp() {
+        support = new ReservationTestSupport(context);
+        mockMvc = support.mockMvc();
+        naruto = support.user("naruto");
+        User sasuke = support.user("sasuke").getUser();
+
+        // Ten reservations of two users, so per-row loading shows up in the counts
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            LocalTime start = LocalTime.of(8, 0).plusMinutes(30L * i);
+            reservations.add(reservation(i % 2 == 0 ? naruto.getUser() : sasuke, start, start.plusMinutes(30)));
+        }
+        reservationService.reserveAll(reservations);
+    }
+
+    @AfterAll
+    void clearReservations() {
+        support.clearRoom(ROOM_ID, DATE, DATE);
+    }
+
+    @ParameterizedTest(name = "GET {0} within {1} statements")
+    @CsvSource({
+            "/rooms/{date},                   2",
+            "/reservations/{date}/{roomId},   4",
+            "/rooms/{date}/grid,              1",
+            "/api/rooms/{date},               2",
+            "/api/reservations/{date}/{roomId}, 2",
+            "/reservations/mine,              1",
+            "/api/reservations/mine,          1",
+    })
+    void getEndpoints(String uri, int budget) throws Exception {
+        List<String> statements = statementsOf(() -> mockMvc.perform(get(uri, DATE, ROOM_ID).with(user(naruto)))
+                .andExpect(status().isOk()));
+
+        assertWithinBudget("GET " + uri, budget, statements);
+    }
+
+    @Test
+    void reserveEndpoint() throws Exception {
+        List<String> statements = statementsOf(() -> mockMvc.perform(post("/reservations/{date}/{roomId}", DATE, ROOM_ID)
+                        .param("startTime", "18:00")
+                        .param("endTime", "18:30")
+                        .with(user(naruto))
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection()));
+
+        assertWithinBudget("POST /reservations/{date}/{roomId}", 4, statements);
+    }
+
+    @Test
+    void cancelEndpoint() throws Exception {
+        Reservation reservation = reservationService.reserve(reservation(naruto.getUser(), LocalTime.of(19, 0), LocalTime.of(19, 30)));
+
+        List<String> statements = statementsOf(() -> mockMvc.perform(post("/reservations/{date}/{roomId}", DATE, ROOM_ID)
+                        .param("cancel", "")
+                        .param("reservationId", reservation.getReservationId().toString())
+                        .with(user(naruto))
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection()));
+
+        assertWithinBudget("POST /reservations/{date}/{roomId}?cancel", 3, statements);
+    }
+
+    @Test
+    void requestMetricCountsJdbcTemplateStatements() throws Exception {
+        Reservation reservation = reservationService.reserve(reservation(naruto.getUser(), LocalTime.of(21, 0), LocalTime.of(21, 30)));
+        double before = statementsRecorded("/api/reservations/{reservationId}");
+
+        mockMvc.perform(delete("/api/reservations/{reservationId}", reservation.getReservationId()).with(user(naruto)))
+                .andExpect(status().isNoContent());
+
+        // Cancelling sends no statement through Hibernate
+        assertThat(statementsRecorded("/api/reservations/{reservationId}") - before).isGreaterThanOrEqualTo(3);
+    }
+
+    @Test
+    void serviceCalls() throws Exception {
+        assertWithinBudget("ReservationService.findReservationViews", 1,
+                statementsOf(() -> reservationService.findReservationViews(ROOM_DAY)));
+        assertWithinBudget("RoomService.findReservableRooms", 1,
+                statementsOf(() -> roomService.findReservableRooms(DATE)));
+        assertWithinBudget("RoomService.findDayGrid", 1,
+                statementsOf(() -> roomService.findDayGrid(DATE)));
+        assertWithinBudget("ReservationService.reserve", 4,
+                statementsOf(() -> reservationService.reserve(reservation(naruto.getUser(), LocalTime.of(20, 0), LocalTime.of(20, 30)))));
+    }
+
+    private List<String> statementsOf(Action action) throws Exception {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        availabilityIndex.invalidate(ROOM_DAY);
+        SqlStatementCounter.start();
+        try {
+            action.run();
+        } catch (Exception | AssertionError e) {
+            SqlStatementCounter.stop();
+            throw e;
+        }
+        return SqlStatementCounter.stop();
+    }
+
+    private double statementsRecorded(String uri) {
+        DistributionSummary summary = meterRegistry.find("reservation.request.statements").tag("uri", uri).summary();
+        return summary == null ? 0 : summary.totalAmount();
+    }
+
+    private static void assertWithinBudget(String name, int budget, List<String> statements) {
+        assertThat(statements)
+                .as("%s issued %d statements, budget is %d:%n%s", name, statements.size(), budget,
+                        String.join(System.lineSeparator(), statements))
+                .hasSizeLessThanOrEqualTo(budget);
+    }
+
+    private static Reservation reservation(User user, LocalTime startTime, LocalTime endTime) {
+        return ReservationTestSupport.reservation(ROOM_DAY, user, startTime, endTime);
+    }
+
+    @FunctionalInterface
+    private interface Action {
+        void run() throws Exception;
+    }
+
+}
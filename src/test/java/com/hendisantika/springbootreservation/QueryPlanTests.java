@@ -0,0 +1,106 @@
+package com.hendisantika.springbootreservation;
+
+import com.hendisantika.springbootreservation.domain.ReservableRoomId;
+import com.hendisantika.springbootreservation.domain.TimeSlots;
+import com.hendisantika.springbootreservation.repository.ReservableRoomRepository;
+import com.hendisantika.springbootreservation.repository.ReservationRepository;
+import com.hendisantika.springbootreservation.util.SqlStatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the listing and conflict queries can be answered from an index on {@code reservation}.
+ * <p>
+ * The SQL of the repository calls is captured and explained as a generic plan with sequential scans
+ * disabled, so a sequential scan in the plan means that no index serves the query, independent of
+ * the amount of test data.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+class QueryPlanTests {
+
+    private static final Pattern SEQ_SCAN_ON_RESERVATION = Pattern.compile("Seq Scan on reservation(_p\\w+)?\\s");
+
+    private static final Pattern PARAMETER = Pattern.compile("\\?");
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(1);
+
+    private static final ReservableRoomId ROOM_DAY = new ReservableRoomId(1, DATE);
+
+    @Autowired
+    ReservationRepository reservationRepository;
+
+    @Autowired
+    ReservableRoomRepository reservableRoomRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    void listingQueriesUseIndexes() {
+        assertNoSequentialScan(() -> reservationRepository.findViewsByReservableRoomId(ROOM_DAY));
+        assertNoSequentialScan(() -> reservationRepository.findByReservableRoomReservableRoomIdOrderByStartTimeAsc(ROOM_DAY));
+        assertNoSequentialScan(() -> reservableRoomRepository.findOccupancy(DATE));
+    }
+
+    @Test
+    void conflictQueriesUseIndexes() {
+        LocalTime start = LocalTime.of(10, 0);
+        LocalTime end = LocalTime.of(11, 0);
+        assertNoSequentialScan(() -> reservableRoomRepository.findFreeRooms(DATE, TimeSlots.mask(start, end)));
+    }
+
+    @Test
+    void historyQueriesUseIndexes() {
+        assertNoSequentialScan(() -> reservationRepository.findUserReservationsFrom("naruto", DATE, Limit.of(21)));
+        assertNoSequentialScan(() -> reservationRepository.findUserReservationsAfter("naruto", DATE, LocalTime.of(10, 0), 1, Limit.of(21)));
+    }
+
+    private void assertNoSequentialScan(Runnable query) {
+        SqlStatementCounter.start();
+        query.run();
+        List<String> statements = SqlStatementCounter.stop();
+
+        assertThat(statements).isNotEmpty();
+        for (String sql : statements) {
+            String plan = explain(sql);
+            assertThat(SEQ_SCAN_ON_RESERVATION.matcher(plan).find())
+                    .as("Sequential scan on reservation for%n%s%n%s", sql, plan)
+                    .isFalse();
+        }
+    }
+
+    private String explain(String sql) {
+        // EXPLAIN (GENERIC_PLAN) takes numbered parameters instead of JDBC placeholders
+        Matcher matcher = PARAMETER.matcher(sql);
+        StringBuilder numbered = new StringBuilder();
+        int parameter = 0;
+        while (matcher.find()) {
+            matcher.appendReplacement(numbered, Matcher.quoteReplacement("$" + ++parameter));
+        }
+        matcher.appendTail(numbered);
+
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            return String.join(System.lineSeparator(),
+                    jdbcTemplate.queryForList("EXPLAIN (GENERIC_PLAN) " + numbered, String.class));
+        });
+    }
+
+}
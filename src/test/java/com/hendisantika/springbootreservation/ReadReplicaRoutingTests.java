@@ -0,0 +1,92 @@
+package com.hendisantika.springbootreservation;
+
+import com.hendisantika.springbootreservation.domain.ReservableRoomId;
+import com.hendisantika.springbootreservation.domain.Reservation;
+import com.hendisantika.springbootreservation.dto.ReservationView;
+import com.hendisantika.springbootreservation.service.ReservationService;
+import com.hendisantika.springbootreservation.util.ReservationTestSupport;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.context.WebApplicationContext;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing of read-only transactions to a replica.
+ * <p>
+ * Primary and replica are two independent PostgreSQL instances with the same schema and no
+ * replication between them, so a reservation made on the primary is never visible on the replica.
+ * That makes it observable which of the two served a read.
+ */
+@SpringBootTest(properties = "reservation.datasource.replica.read-your-writes-window=1h")
+@Import(TestcontainersConfiguration.class)
+@Testcontainers
+class ReadReplicaRoutingTests {
+
+    @Container
+    private static final PostgreSQLContainer replica = new PostgreSQLContainer("postgres:17-alpine");
+
+    private static final ReservableRoomId ROOM_DAY = new ReservableRoomId(2, LocalDate.now().plusDays(3));
+
+    @Autowired
+    WebApplicationContext context;
+
+    @Autowired
+    ReservationService reservationService;
+
+    private ReservationTestSupport support;
+
+    @DynamicPropertySource
+    static void replicaProperties(DynamicPropertyRegistry registry) {
+        Flyway.configure()
+                .dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword())
+                .schemas("reservation")
+                .load()
+                .migrate();
+        registry.add("reservation.datasource.replica.url", replica::getJdbcUrl);
+        registry.add("reservation.datasource.replica.username", replica::getUsername);
+        registry.add("reservation.datasource.replica.password", replica::getPassword);
+    }
+
+    @BeforeEach
+    void setUp() {
+        support = new ReservationTestSupport(context);
+    }
+
+    @AfterEach
+    void clearReservations() {
+        support.clearRoom(ROOM_DAY.getRoomId(), ROOM_DAY.getReservedDate(), ROOM_DAY.getReservedDate());
+    }
+
+    @Test
+    void readOnlyTransactionsAreServedByReplicaExceptForRecentWriters() {
+        Reservation reservation = support.as("sasuke",
+                () -> support.reserve(ROOM_DAY, support.user("sasuke"), LocalTime.of(9, 0), LocalTime.of(10, 0)));
+
+        assertThat(reservationIds(support.as("naruto", () -> reservationService.findReservationViews(ROOM_DAY))))
+                .doesNotContain(reservation.getReservationId());
+        assertThat(reservationIds(reservationService.findReservationViews(ROOM_DAY)))
+                .doesNotContain(reservation.getReservationId());
+        assertThat(reservationIds(support.as("sasuke", () -> reservationService.findReservationViews(ROOM_DAY))))
+                .contains(reservation.getReservationId());
+    }
+
+    private static List<Integer> reservationIds(List<ReservationView> views) {
+        return views.stream().map(ReservationView::reservationId).toList();
+    }
+
+}
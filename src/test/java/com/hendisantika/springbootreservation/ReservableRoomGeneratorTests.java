@@ -0,0 +1,84 @@
+package com.hendisantika.springbootreservation;
+
+import com.hendisantika.springbootreservation.service.ReservableRoomGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rolling horizon of reservable dates: repeated runs add nothing, expired room-days are pruned
+ * unless they hold reservations.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+class ReservableRoomGeneratorTests {
+
+    private static final int ROOM_ID = 1;
+
+    @Value("${reservation.reservable-dates.horizon-days}")
+    int horizonDays;
+
+    @Value("${reservation.reservable-dates.retention-days}")
+    int retentionDays;
+
+    @Autowired
+    ReservableRoomGenerator generator;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void removePastRoomDays() {
+        LocalDate from = LocalDate.now().minusDays(retentionDays + 2);
+        LocalDate to = LocalDate.now().minusDays(retentionDays);
+        jdbcTemplate.update("DELETE FROM reservation WHERE room_id = ? AND reserved_date BETWEEN ? AND ?", ROOM_ID, from, to);
+        jdbcTemplate.update("DELETE FROM reservable_room WHERE room_id = ? AND reserved_date BETWEEN ? AND ?", ROOM_ID, from, to);
+    }
+
+    @Test
+    void theHorizonIsGeneratedOnce() {
+        LocalDate today = LocalDate.now();
+        Integer before = upcomingRoomDays(today);
+
+        generator.generate();
+
+        assertThat(upcomingRoomDays(today)).isEqualTo(before);
+        assertThat(roomDaysBetween(today, today.plusDays(horizonDays))).isEqualTo(horizonDays + 1);
+        assertThat(roomDaysBetween(today.plusDays(horizonDays + 1), today.plusYears(10))).isZero();
+    }
+
+    @Test
+    void expiredRoomDaysArePrunedUnlessReserved() {
+        LocalDate expired = LocalDate.now().minusDays(retentionDays + 1);
+        LocalDate reserved = expired.minusDays(1);
+        LocalDate retained = LocalDate.now().minusDays(retentionDays);
+        jdbcTemplate.update("INSERT INTO reservable_room (reserved_date, room_id) VALUES (?, ?), (?, ?), (?, ?)",
+                expired, ROOM_ID, reserved, ROOM_ID, retained, ROOM_ID);
+        jdbcTemplate.update("INSERT INTO reservation (reserved_date, room_id, start_time, end_time, user_id) VALUES (?, ?, '10:00', '11:00', 'naruto')",
+                reserved, ROOM_ID);
+
+        generator.generate();
+
+        assertThat(roomDaysBetween(expired, expired)).isZero();
+        assertThat(roomDaysBetween(reserved, reserved)).isOne();
+        assertThat(roomDaysBetween(retained, retained)).isOne();
+    }
+
+    private Integer upcomingRoomDays(LocalDate today) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM reservable_room WHERE reserved_date >= ?", Integer.class, today);
+    }
+
+    private Integer roomDaysBetween(LocalDate from, LocalDate to) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM reservable_room WHERE room_id = ? AND reserved_date BETWEEN ? AND ?",
+                Integer.class, ROOM_ID, from, to);
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.hendisantika.springbootreservation;
+
+import com.hendisantika.springbootreservation.service.ReservationUserDetails;
+import com.hendisantika.springbootreservation.util.ReservationTestSupport;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Status codes and conditional requests of the reservation JSON API.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+class ReservationApiTests {
+
+    private static final int ROOM_ID = 1;
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(15);
+
+    private static final LocalDate UNAVAILABLE_DATE = LocalDate.now().plusYears(5);
+
+    @Autowired
+    WebApplicationContext context;
+
+    private ReservationTestSupport support;
+
+    private MockMvc mockMvc;
+
+    private ReservationUserDetails naruto;
+
+    @BeforeEach
+    void setUp() {
+        support = new ReservationTestSupport(context);
+        mockMvc = support.mockMvc();
+        naruto = support.user("naruto");
+    }
+
+    @AfterEach
+    void clearReservations() {
+        support.clearRoom(ROOM_ID, DATE, DATE);
+    }
+
+    @Test
+    void reservationsOfARoomDayAreNotResentUntilTheyChange() throws Exception {
+        String etag = etag();
+        mockMvc.perform(get("/api/reservations/{date}/{roomId}", DATE, ROOM_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .with(user(naruto)))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        String created = mockMvc.perform(post("/api/reservations/{date}/{roomId}", DATE, ROOM_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"startTime\": \"10:00\", \"endTime\": \"11:00\"}")
+                        .with(user(naruto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String reservedEtag = etagChangedFrom(etag);
+
+        mockMvc.perform(delete("/api/reservations/{reservationId}", JsonPath.<Integer>read(created, "$.reservationId"))
+                        .with(user(naruto)))
+                .andExpect(status().isNoContent());
+        etagChangedFrom(reservedEtag);
+    }
+
+    @Test
+    void roomDaysThatCanNotBeReservedAreNotFoundForReadingAndReserving() throws Exception {
+        mockMvc.perform(get("/api/reservations/{date}/{roomId}", UNAVAILABLE_DATE, 1).with(user(naruto)))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/reservations/{date}/{roomId}", UNAVAILABLE_DATE, 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"startTime\": \"10:00\", \"endTime\": \"11:00\"}")
+                        .with(user(naruto)))
+                .andExpect(status().isNotFound());
+    }
+
+    private String etag() throws Exception {
+        return mockMvc.perform(get("/api/reservations/{date}/{roomId}", DATE, ROOM_ID).with(user(naruto)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private String etagChangedFrom(String etag) throws Exception {
+        String changed = mockMvc.perform(get("/api/reservations/{date}/{roomId}", DATE, ROOM_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .with(user(naruto)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(changed).isNotNull().isNotEqualTo(etag);
+        return changed;
+    }
+
+}
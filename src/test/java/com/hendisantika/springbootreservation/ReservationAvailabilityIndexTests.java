@@ -0,0 +1,115 @@
+package com.hendisantika.springbootreservation;
+
+import com.hendisantika.springbootreservation.domain.ReservableRoomId;
+import com.hendisantika.springbootreservation.domain.TimeSlots;
+import com.hendisantika.springbootreservation.exception.AlreadyReservedException;
+import com.hendisantika.springbootreservation.service.ReservationAvailabilityIndex;
+import com.hendisantika.springbootreservation.service.ReservationUserDetails;
+import com.hendisantika.springbootreservation.util.ReservationTestSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Claims, rollbacks and refreshes of the {@link ReservationAvailabilityIndex} against the bookings
+ * that reach the database.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+class ReservationAvailabilityIndexTests {
+
+    private static final int ROOM_ID = 1;
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(10);
+
+    private static final long NINE_TO_TEN = TimeSlots.mask(LocalTime.of(9, 0), LocalTime.of(10, 0));
+
+    @Autowired
+    WebApplicationContext context;
+
+    @Autowired
+    ReservationAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private ReservationTestSupport support;
+
+    private ReservationUserDetails naruto;
+
+    @BeforeEach
+    void setUp() {
+        support = new ReservationTestSupport(context);
+        naruto = support.user("naruto");
+    }
+
+    @AfterEach
+    void clearReservations() {
+        support.clearRoom(ROOM_ID, DATE, DATE.plusDays(2));
+    }
+
+    @Test
+    void claimsOfReservedSlotsConflict() {
+        ReservableRoomId roomDay = new ReservableRoomId(ROOM_ID, DATE);
+        support.reserve(roomDay, naruto, LocalTime.of(9, 0), LocalTime.of(10, 0));
+
+        assertThat(availabilityIndex.isReserved(roomDay, NINE_TO_TEN)).isTrue();
+        assertThat(availabilityIndex.tryClaim(roomDay, TimeSlots.mask(LocalTime.of(9, 30), LocalTime.of(10, 30)))).isFalse();
+        assertThatThrownBy(() -> support.reserve(roomDay, support.user("sasuke"), LocalTime.of(9, 30), LocalTime.of(10, 30)))
+                .isInstanceOf(AlreadyReservedException.class);
+        assertThat(availabilityIndex.isReserved(roomDay, TimeSlots.mask(LocalTime.of(10, 0), LocalTime.of(10, 30)))).isFalse();
+    }
+
+    @Test
+    void claimsAreReleasedWhenTheTransactionRollsBack() {
+        ReservableRoomId roomDay = new ReservableRoomId(ROOM_ID, DATE.plusDays(1));
+        assertThat(availabilityIndex.isReserved(roomDay, NINE_TO_TEN)).isFalse();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            support.reserve(roomDay, naruto, LocalTime.of(9, 0), LocalTime.of(10, 0));
+            assertThat(availabilityIndex.isReserved(roomDay, NINE_TO_TEN)).isTrue();
+            status.setRollbackOnly();
+        });
+
+        assertThat(availabilityIndex.isReserved(roomDay, NINE_TO_TEN)).isFalse();
+        support.reserve(roomDay, support.user("sasuke"), LocalTime.of(9, 0), LocalTime.of(10, 0));
+        assertThat(availabilityIndex.isReserved(roomDay, NINE_TO_TEN)).isTrue();
+    }
+
+    @Test
+    void refreshPicksUpBookingsMadeWithoutThisNode() {
+        ReservableRoomId roomDay = new ReservableRoomId(ROOM_ID, DATE.plusDays(2));
+        assertThat(availabilityIndex.isReserved(roomDay, NINE_TO_TEN)).isFalse();
+
+        // Booked as another node would, without touching this node's index
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO reservation (reserved_date, room_id, start_time, end_time, user_id) VALUES (?, ?, ?, ?, ?)",
+                    DATE.plusDays(2), ROOM_ID, LocalTime.of(9, 0), LocalTime.of(10, 0), "sasuke");
+            jdbcTemplate.update("UPDATE reservable_room SET occupancy = occupancy | ?, version = version + 1 "
+                    + "WHERE reserved_date = ? AND room_id = ?", NINE_TO_TEN, DATE.plusDays(2), ROOM_ID);
+        });
+        assertThat(availabilityIndex.isReserved(roomDay, NINE_TO_TEN)).isFalse();
+
+        availabilityIndex.refresh(roomDay);
+
+        assertThat(availabilityIndex.isReserved(roomDay, NINE_TO_TEN)).isTrue();
+        assertThatThrownBy(() -> support.reserve(roomDay, naruto, LocalTime.of(9, 0), LocalTime.of(10, 0)))
+                .isInstanceOf(AlreadyReservedException.class);
+    }
+
+}
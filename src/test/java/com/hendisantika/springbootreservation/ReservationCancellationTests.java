@@ -0,0 +1,147 @@
+package com.hendisantika.springbootreservation;
+
+import com.hendisantika.springbootreservation.domain.ReservableRoomId;
+import com.hendisantika.springbootreservation.domain.Reservation;
+import com.hendisantika.springbootreservation.domain.TimeSlots;
+import com.hendisantika.springbootreservation.service.ReservationService;
+import com.hendisantika.springbootreservation.service.ReservationUserDetails;
+import com.hendisantika.springbootreservation.service.RoomDayOccupancy;
+import com.hendisantika.springbootreservation.util.ReservationTestSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Cancellation of single reservations and the bulk cancel operations.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+class ReservationCancellationTests {
+
+    private static final int ROOM_ID = 7;
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(60);
+
+    @Autowired
+    WebApplicationContext context;
+
+    @Autowired
+    ReservationService reservationService;
+
+    @Autowired
+    RoomDayOccupancy occupancy;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private ReservationTestSupport support;
+
+    private MockMvc mockMvc;
+
+    private ReservationUserDetails naruto;
+
+    private ReservationUserDetails sasuke;
+
+    private ReservationUserDetails kakashi;
+
+    @BeforeEach
+    void setUp() {
+        support = new ReservationTestSupport(context);
+        mockMvc = support.mockMvc();
+        naruto = support.user("naruto");
+        sasuke = support.user("sasuke");
+        kakashi = support.user("kakashi");
+    }
+
+    @AfterEach
+    void clearReservations() {
+        support.clearRoom(ROOM_ID - 1, DATE, DATE.plusDays(2));
+        support.clearRoom(ROOM_ID, DATE, DATE.plusDays(4));
+    }
+
+    @Test
+    void onlyTheOwnerOrAnAdministratorCancels() throws Exception {
+        ReservableRoomId roomDay = new ReservableRoomId(ROOM_ID, DATE);
+        Reservation reservation = support.reserve(roomDay, naruto, LocalTime.of(9, 0), LocalTime.of(10, 0));
+
+        mockMvc.perform(delete("/api/reservations/{reservationId}", reservation.getReservationId()).with(user(sasuke)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/api/reservations/{reservationId}", reservation.getReservationId()).with(user(naruto)))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/reservations/{reservationId}", reservation.getReservationId()).with(user(naruto)))
+                .andExpect(status().isNotFound());
+        assertThat(occupancy.find(roomDay)).isZero();
+
+        Reservation other = support.reserve(roomDay, sasuke, LocalTime.of(9, 0), LocalTime.of(10, 0));
+        assertThat(reservationService.cancel(other.getReservationId(), kakashi)).isPresent();
+        assertThat(occupancy.find(roomDay)).isZero();
+    }
+
+    @Test
+    void usersCancelAllOfTheirReservationsOfADate() throws Exception {
+        LocalDate date = DATE.plusDays(1);
+        ReservableRoomId roomDay = new ReservableRoomId(ROOM_ID, date);
+        ReservableRoomId otherRoomDay = new ReservableRoomId(ROOM_ID - 1, date);
+        support.reserve(roomDay, naruto, LocalTime.of(9, 0), LocalTime.of(10, 0));
+        support.reserve(otherRoomDay, naruto, LocalTime.of(11, 0), LocalTime.of(12, 0));
+        support.reserve(roomDay, sasuke, LocalTime.of(14, 0), LocalTime.of(15, 0));
+
+        mockMvc.perform(delete("/api/reservations/mine").param("date", date.toString()).with(user(naruto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].roomId").value(containsInAnyOrder(ROOM_ID, ROOM_ID - 1)));
+
+        assertThat(occupancy.find(roomDay)).isEqualTo(TimeSlots.mask(LocalTime.of(14, 0), LocalTime.of(15, 0)));
+        assertThat(occupancy.find(otherRoomDay)).isZero();
+        assertThat(userIds(roomDay)).containsExactly("sasuke");
+        assertThat(jdbcTemplate.queryForObject("SELECT reservations FROM room_day_utilization WHERE reserved_date = ? AND room_id = ?",
+                Integer.class, date, ROOM_ID)).isOne();
+    }
+
+    @Test
+    void administratorsClearARoomForADateRange() throws Exception {
+        LocalDate from = DATE.plusDays(2);
+        support.reserve(new ReservableRoomId(ROOM_ID, from), naruto, LocalTime.of(9, 0), LocalTime.of(10, 0));
+        support.reserve(new ReservableRoomId(ROOM_ID, from.plusDays(1)), sasuke, LocalTime.of(9, 0), LocalTime.of(10, 0));
+        support.reserve(new ReservableRoomId(ROOM_ID, from.plusDays(2)), sasuke, LocalTime.of(9, 0), LocalTime.of(10, 0));
+
+        mockMvc.perform(delete("/api/reservations/rooms/{roomId}", ROOM_ID)
+                        .param("from", from.toString())
+                        .param("to", from.plusDays(1).toString())
+                        .with(user(naruto)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/api/reservations/rooms/{roomId}", ROOM_ID)
+                        .param("from", from.toString())
+                        .param("to", from.plusDays(1).toString())
+                        .with(user(kakashi)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+
+        assertThat(userIds(new ReservableRoomId(ROOM_ID, from))).isEmpty();
+        assertThat(userIds(new ReservableRoomId(ROOM_ID, from.plusDays(1)))).isEmpty();
+        assertThat(userIds(new ReservableRoomId(ROOM_ID, from.plusDays(2)))).containsExactly("sasuke");
+        assertThat(occupancy.find(new ReservableRoomId(ROOM_ID, from.plusDays(1)))).isZero();
+    }
+
+    private List<String> userIds(ReservableRoomId reservableRoomId) {
+        return jdbcTemplate.queryForList("SELECT user_id FROM reservation WHERE reserved_date = ? AND room_id = ?",
+                String.class, reservableRoomId.getReservedDate(), reservableRoomId.getRoomId());
+    }
+
+}
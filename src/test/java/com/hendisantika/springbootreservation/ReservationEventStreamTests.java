@@ -0,0 +1,143 @@
+package com.hendisantika.springbootreservation;
+
+import com.hendisantika.springbootreservation.domain.ReservableRoomId;
+import com.hendisantika.springbootreservation.domain.Reservation;
+import com.hendisantika.springbootreservation.service.ReservationUserDetails;
+import com.hendisantika.springbootreservation.util.ReservationTestSupport;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Reservation event streams: changes committed through any connection reach the subscribers, and
+ * subscribers are asked to reload when changes could not be relayed one by one.
+ */
+@SpringBootTest(properties = "reservation.events.relay-retry-interval=100ms")
+@Import(TestcontainersConfiguration.class)
+class ReservationEventStreamTests {
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(45);
+
+    private static final List<Integer> ROOM_IDS = List.of(3, 4, 7);
+
+    private static final ReservableRoomId ROOM_DAY = new ReservableRoomId(ROOM_IDS.getFirst(), DATE);
+
+    @Autowired
+    WebApplicationContext context;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    private final List<MvcResult> streams = new ArrayList<>();
+
+    private ReservationTestSupport support;
+
+    private MockMvc mockMvc;
+
+    private ReservationUserDetails naruto;
+
+    @BeforeEach
+    void setUp() {
+        support = new ReservationTestSupport(context);
+        mockMvc = support.mockMvc();
+        naruto = support.user("naruto");
+    }
+
+    @AfterEach
+    void closeStreamsAndClearReservations() {
+        streams.forEach(stream -> stream.getRequest().getAsyncContext().complete());
+        ROOM_IDS.forEach(roomId -> support.clearRoom(roomId, DATE, DATE));
+    }
+
+    @Test
+    void changesCommittedThroughAnyConnectionAreStreamed() throws Exception {
+        MvcResult stream = subscribe("/reservations/{date}/{roomId}/events", DATE, ROOM_DAY.getRoomId());
+
+        Reservation reserved = support.reserve(ROOM_DAY, naruto, LocalTime.of(9, 0), LocalTime.of(10, 0));
+        awaitEvent(stream, "event:reserved", "\"reservationId\":" + reserved.getReservationId());
+
+        // Written without the application, as by another node
+        Integer inserted = jdbcTemplate.queryForObject("INSERT INTO reservation (reserved_date, room_id, start_time, end_time, user_id) "
+                        + "VALUES (?, ?, ?, ?, ?) RETURNING reservation_id",
+                Integer.class, DATE, ROOM_DAY.getRoomId(), LocalTime.of(11, 0), LocalTime.of(12, 0), "sasuke");
+        awaitEvent(stream, "event:reserved", "\"reservationId\":" + inserted);
+
+        support.clearRoom(ROOM_DAY.getRoomId(), DATE, DATE);
+        awaitEvent(stream, "event:cancelled", "\"reservationId\":" + inserted);
+    }
+
+    @Test
+    void subscribersReloadWhenAStatementChangedTooManyReservations() throws Exception {
+        MvcResult stream = subscribe("/reservations/{date}/events", DATE);
+
+        // Too many rows for one notification, so only their date is relayed
+        jdbcTemplate.update("INSERT INTO reservation (reserved_date, room_id, start_time, end_time, user_id) "
+                        + "SELECT ?, room_id, time '08:00' + n * interval '30 minutes', time '08:30' + n * interval '30 minutes', 'sasuke' "
+                        + "FROM unnest(CAST(? AS int4[])) AS room_id, generate_series(0, 23) AS n",
+                DATE, ROOM_IDS.toArray(Integer[]::new));
+
+        awaitEvent(stream, "event:resync");
+    }
+
+    @Test
+    void subscribersReloadAfterTheListeningConnectionWasLost() throws Exception {
+        MvcResult stream = subscribe("/reservations/{date}/events", DATE);
+
+        jdbcTemplate.queryForList("SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE query = 'LISTEN reservation_change'");
+
+        awaitEvent(stream, "event:resync");
+    }
+
+    @Test
+    void completedStreamsAreUnsubscribed() throws Exception {
+        double before = subscribers();
+        MvcResult stream = subscribe("/reservations/{date}/{roomId}/events", DATE, ROOM_DAY.getRoomId());
+        assertThat(subscribers()).isEqualTo(before + 1);
+
+        stream.getRequest().getAsyncContext().complete();
+        streams.remove(stream);
+
+        assertThat(subscribers()).isEqualTo(before);
+    }
+
+    private MvcResult subscribe(String uri, Object... uriVariables) throws Exception {
+        MvcResult stream = mockMvc.perform(get(uri, uriVariables).with(user(naruto)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        streams.add(stream);
+        return stream;
+    }
+
+    private static void awaitEvent(MvcResult stream, String... fragments) {
+        await().atMost(Duration.ofSeconds(10))
+                .untilAsserted(() -> assertThat(stream.getResponse().getContentAsString()).contains(fragments));
+    }
+
+    private double subscribers() {
+        return meterRegistry.get("reservation.events.subscribers").gauge().value();
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.hendisantika.springbootreservation;
+
+import com.hendisantika.springbootreservation.service.ReservationPartitionMaintenance;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Monthly partitions of {@code reservation}: pruning of date queries, creation ahead of time and
+ * archival of expired months.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+class ReservationPartitionTests {
+
+    private static final Pattern PARTITION = Pattern.compile("reservation_p(?:\\d{6}|default)\\b");
+
+    @Autowired
+    ReservationPartitionMaintenance maintenance;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void queriesOfADateTouchOnlyItsPartition() {
+        LocalDate date = LocalDate.now().plusDays(5);
+
+        String plan = String.join(System.lineSeparator(), jdbcTemplate.queryForList(
+                "EXPLAIN SELECT * FROM reservation WHERE reserved_date = ? AND room_id = ?", String.class, date, 1));
+
+        Matcher matcher = PARTITION.matcher(plan);
+        assertThat(matcher.results().map(MatchResult::group).collect(Collectors.toSet()))
+                .as(plan)
+                .containsExactly(partitionName(YearMonth.from(date)));
+    }
+
+    @Test
+    void partitionsAreCreatedAhead() {
+        maintenance.maintain();
+
+        assertThat(maintenance.partitions())
+                .contains(partitionName(YearMonth.now()), partitionName(YearMonth.now().plusMonths(4)));
+    }
+
+    @Test
+    void expiredPartitionsAreArchived() {
+        YearMonth expired = YearMonth.now().minusMonths(14);
+        LocalDate date = expired.atDay(10);
+        jdbcTemplate.execute("CREATE TABLE " + partitionName(expired) + " PARTITION OF reservation FOR VALUES FROM ('"
+                + expired.atDay(1) + "') TO ('" + expired.plusMonths(1).atDay(1) + "')");
+        jdbcTemplate.update("INSERT INTO reservable_room (reserved_date, room_id) VALUES (?, 1)", date);
+        Integer reservationId = jdbcTemplate.queryForObject("INSERT INTO reservation (reserved_date, room_id, start_time, end_time, user_id) "
+                + "VALUES (?, 1, '10:00', '11:00', 'naruto') RETURNING reservation_id", Integer.class, date);
+
+        maintenance.maintain();
+
+        assertThat(maintenance.partitions()).doesNotContain(partitionName(expired));
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM reservation WHERE reservation_id = ?", Integer.class, reservationId))
+                .isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT reserved_date FROM reservation_archive WHERE reservation_id = ?",
+                LocalDate.class, reservationId))
+                .isEqualTo(date);
+    }
+
+    private static String partitionName(YearMonth month) {
+        return "reservation_p" + month.format(DateTimeFormatter.ofPattern("yyyyMM"));
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.hendisantika.springbootreservation;
+
+import com.hendisantika.springbootreservation.domain.MeetingRoom;
+import com.hendisantika.springbootreservation.domain.Recurrence;
+import com.hendisantika.springbootreservation.domain.ReservableRoomId;
+import com.hendisantika.springbootreservation.domain.ReservationSeries;
+import com.hendisantika.springbootreservation.dto.SeriesReservationResult;
+import com.hendisantika.springbootreservation.repository.MeetingRoomRepository;
+import com.hendisantika.springbootreservation.service.ReservationService;
+import com.hendisantika.springbootreservation.service.ReservationUserDetails;
+import com.hendisantika.springbootreservation.util.ReservationTestSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Recurring bookings: expansion of the recurrence, the occurrence cap and series that can only be
+ * reserved in part.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+class ReservationSeriesTests {
+
+    private static final int ROOM_ID = 2;
+
+    @Value("${reservation.reservable-dates.horizon-days}")
+    int horizonDays;
+
+    @Autowired
+    WebApplicationContext context;
+
+    @Autowired
+    ReservationService reservationService;
+
+    @Autowired
+    MeetingRoomRepository meetingRoomRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private ReservationTestSupport support;
+
+    private MockMvc mockMvc;
+
+    private ReservationUserDetails naruto;
+
+    private LocalDate lastReservableDate;
+
+    @BeforeEach
+    void setUp() {
+        support = new ReservationTestSupport(context);
+        mockMvc = support.mockMvc();
+        naruto = support.user("naruto");
+        lastReservableDate = LocalDate.now().plusDays(horizonDays);
+    }
+
+    @AfterEach
+    void clearReservations() {
+        support.clearRoom(ROOM_ID, lastReservableDate.minusWeeks(2), lastReservableDate);
+    }
+
+    @Test
+    void weeklyOccurrencesAreOneWeekApart() {
+        LocalDate firstDate = LocalDate.of(2026, 2, 24);
+
+        assertThat(reservationService.occurrences(series(Recurrence.WEEKLY, firstDate, 3)))
+                .containsExactly(firstDate, LocalDate.of(2026, 3, 3), LocalDate.of(2026, 3, 10));
+        assertThat(reservationService.occurrences(series(Recurrence.DAILY, firstDate, 2)))
+                .containsExactly(firstDate, LocalDate.of(2026, 2, 25));
+    }
+
+    @Test
+    void occurrencesAreCapped() throws Exception {
+        mockMvc.perform(post("/api/reservations/series")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(seriesJson(367))
+                        .with(user(naruto)))
+                .andExpect(status().isBadRequest());
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM reservation WHERE room_id = ? AND reserved_date >= ?",
+                Integer.class, ROOM_ID, lastReservableDate.minusWeeks(2))).isZero();
+    }
+
+    @Test
+    void occurrencesThatCollideOrAreNotReservableAreReportedAndTheOthersReserved() {
+        LocalDate first = lastReservableDate.minusWeeks(2);
+        LocalDate collided = lastReservableDate.minusWeeks(1);
+        LocalDate reserved = lastReservableDate;
+        LocalDate unavailable = lastReservableDate.plusWeeks(1);
+        support.reserve(new ReservableRoomId(ROOM_ID, collided), support.user("sasuke"), LocalTime.of(10, 30), LocalTime.of(11, 30));
+
+        SeriesReservationResult result = reservationService.reserveSeries(series(Recurrence.WEEKLY, first, 4));
+
+        assertThat(result.seriesId()).isNotNull();
+        assertThat(result.reservedDates()).containsExactly(first, reserved);
+        assertThat(result.collidedDates()).containsExactly(collided);
+        assertThat(result.unavailableDates()).containsExactly(unavailable);
+        assertThat(jdbcTemplate.queryForList("SELECT reserved_date FROM reservation WHERE series_id = ? ORDER BY reserved_date",
+                LocalDate.class, result.seriesId())).containsExactly(first, reserved);
+    }
+
+    private ReservationSeries series(Recurrence recurrence, LocalDate firstDate, int occurrences) {
+        MeetingRoom meetingRoom = meetingRoomRepository.getReferenceById(ROOM_ID);
+        ReservationSeries series = new ReservationSeries();
+        series.setMeetingRoom(meetingRoom);
+        series.setUser(naruto.getUser());
+        series.setRecurrence(recurrence);
+        series.setFirstDate(firstDate);
+        series.setOccurrences(occurrences);
+        series.setStartTime(LocalTime.of(10, 0));
+        series.setEndTime(LocalTime.of(11, 0));
+        return series;
+    }
+
+    private String seriesJson(int occurrences) {
+        return """
+                {"date": "%s", "roomId": %d, "startTime": "10:00", "endTime": "11:00",
+                 "recurrence": "WEEKLY", "occurrences": %d}""".formatted(lastReservableDate.minusWeeks(2), ROOM_ID, occurrences);
+    }
+
+}
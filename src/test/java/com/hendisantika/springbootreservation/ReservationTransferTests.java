@@ -0,0 +1,141 @@
+package com.hendisantika.springbootreservation;
+
+import com.hendisantika.springbootreservation.service.ReservationUserDetails;
+import com.hendisantika.springbootreservation.util.ReservationTestSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Bulk import and streaming export of reservations.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+class ReservationTransferTests {
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(40);
+
+    @Autowired
+    WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    private ReservationUserDetails kakashi;
+
+    private ReservationUserDetails naruto;
+
+    @BeforeEach
+    void setUp() {
+        ReservationTestSupport support = new ReservationTestSupport(context);
+        mockMvc = support.mockMvc();
+        kakashi = support.user("kakashi");
+        naruto = support.user("naruto");
+    }
+
+    @Test
+    void importStoresValidLinesAndReportsTheOthers() throws Exception {
+        String csv = """
+                reserved_date,room_id,start_time,end_time,user_id
+                %1$s,3,09:00,10:00,naruto
+                %1$s,3,09:30,10:30,sasuke
+                %1$s,3,11:15,12:00,sakura
+                %1$s,3,13:00,12:00,sakura
+                %1$s,3,14:00,15:00,nobody
+                not-a-date,3,14:00,15:00,naruto
+                %1$s,3,16:00,17:00,"sakura"
+                """.formatted(DATE);
+
+        mockMvc.perform(post("/api/reservations/import")
+                        .contentType("text/csv")
+                        .content(csv)
+                        .with(user(kakashi)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(5))
+                .andExpect(jsonPath("$.rejections[*].line").value(containsInAnyOrder(3, 4, 5, 6, 7)));
+
+        String export = mockMvc.perform(get("/api/reservations/export")
+                        .param("from", DATE.toString())
+                        .param("to", DATE.toString())
+                        .param("roomId", "3")
+                        .with(user(kakashi)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(export.lines())
+                .first().isEqualTo("reservation_id,reserved_date,room_id,start_time,end_time,user_id");
+        assertThat(export.lines().skip(1))
+                .hasSize(2)
+                .anyMatch(line -> line.endsWith(DATE + ",3,09:00,10:00,naruto"))
+                .anyMatch(line -> line.endsWith(DATE + ",3,16:00,17:00,sakura"));
+    }
+
+    @Test
+    void ndjsonExportIsFilteredByUser() throws Exception {
+        String ndjson = """
+                {"reservedDate":"%1$s","roomId":4,"startTime":"08:00","endTime":"08:30","userId":"sasuke"}
+                {"reservedDate":"%1$s","roomId":4,"startTime":"08:30","endTime":"09:00","userId":"naruto"}
+                """.formatted(DATE);
+        mockMvc.perform(post("/api/reservations/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson)
+                        .with(user(kakashi)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+
+        String export = mockMvc.perform(get("/api/reservations/export")
+                        .param("from", DATE.toString())
+                        .param("to", DATE.toString())
+                        .param("roomId", "4")
+                        .param("userId", "sasuke")
+                        .param("format", "ndjson")
+                        .with(user(kakashi)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(export.lines()).singleElement().asString()
+                .contains("\"userId\":\"sasuke\"")
+                .contains("\"startTime\":\"08:00");
+    }
+
+    @Test
+    void unsupportedFormatsAreRejected() throws Exception {
+        mockMvc.perform(get("/api/reservations/export")
+                        .param("from", DATE.toString())
+                        .param("to", DATE.toString())
+                        .param("format", "xml")
+                        .with(user(kakashi)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/reservations/import")
+                        .contentType("text/csv")
+                        .content("reserved_date,room_id,start_time,end_time\n")
+                        .with(user(kakashi)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("CSV header is missing the column user_id"));
+    }
+
+    @Test
+    void onlyAdministratorsTransferReservations() throws Exception {
+        mockMvc.perform(get("/api/reservations/export")
+                        .param("from", DATE.toString())
+                        .param("to", DATE.toString())
+                        .with(user(naruto)))
+                .andExpect(status().isForbidden());
+    }
+
+}
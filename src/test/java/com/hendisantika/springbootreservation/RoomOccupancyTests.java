@@ -0,0 +1,131 @@
+package com.hendisantika.springbootreservation;
+
+import com.hendisantika.springbootreservation.domain.ReservableRoomId;
+import com.hendisantika.springbootreservation.domain.Reservation;
+import com.hendisantika.springbootreservation.domain.TimeSlots;
+import com.hendisantika.springbootreservation.dto.RoomOccupancy;
+import com.hendisantika.springbootreservation.exception.AlreadyReservedException;
+import com.hendisantika.springbootreservation.exception.UnavailableReservationException;
+import com.hendisantika.springbootreservation.service.ReservationAvailabilityIndex;
+import com.hendisantika.springbootreservation.service.ReservationService;
+import com.hendisantika.springbootreservation.service.ReservationUserDetails;
+import com.hendisantika.springbootreservation.service.RoomDayOccupancy;
+import com.hendisantika.springbootreservation.service.RoomService;
+import com.hendisantika.springbootreservation.util.ReservationTestSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Persisted occupancy bitmaps of room-days and the availability queries answered from them.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+class RoomOccupancyTests {
+
+    private static final ReservableRoomId ROOM_DAY = new ReservableRoomId(6, LocalDate.now().plusDays(55));
+
+    @Autowired
+    WebApplicationContext context;
+
+    @Autowired
+    ReservationService reservationService;
+
+    @Autowired
+    RoomService roomService;
+
+    @Autowired
+    RoomDayOccupancy occupancy;
+
+    @Autowired
+    ReservationAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    private ReservationTestSupport support;
+
+    private ReservationUserDetails naruto;
+
+    @BeforeEach
+    void setUp() {
+        support = new ReservationTestSupport(context);
+        naruto = support.user("naruto");
+    }
+
+    @AfterEach
+    void clearReservations() {
+        SecurityContextHolder.clearContext();
+        support.clearRoom(ROOM_DAY.getRoomId(), ROOM_DAY.getReservedDate(), ROOM_DAY.getReservedDate().plusDays(1));
+    }
+
+    @Test
+    void reservationsAndCancellationsMaintainTheBitmap() {
+        LocalTime nine = LocalTime.of(9, 0);
+        LocalTime eleven = LocalTime.of(11, 0);
+        ReservationUserDetails kakashi = support.signIn("kakashi");
+
+        Reservation reservation = support.reserve(ROOM_DAY, naruto, nine, eleven);
+        assertThat(occupancy.find(ROOM_DAY)).isEqualTo(TimeSlots.mask(nine, eleven));
+        assertThat(roomService.findFreeRooms(ROOM_DAY.getReservedDate(), LocalTime.of(10, 0), LocalTime.of(10, 30)))
+                .extracting(RoomOccupancy::roomId)
+                .doesNotContain(ROOM_DAY.getRoomId());
+        assertThat(roomService.findReservableRooms(ROOM_DAY.getReservedDate()))
+                .filteredOn(room -> room.roomId().equals(ROOM_DAY.getRoomId()))
+                .singleElement()
+                .extracting(RoomOccupancy::getFreeSlots)
+                .isEqualTo(TimeSlots.SLOTS_PER_DAY - 4);
+
+        assertThat(reservationService.cancel(reservation.getReservationId(), kakashi)).isPresent();
+        assertThat(occupancy.find(ROOM_DAY)).isZero();
+        assertThat(roomService.findFreeRooms(ROOM_DAY.getReservedDate(), LocalTime.of(10, 0), LocalTime.of(10, 30)))
+                .extracting(RoomOccupancy::roomId)
+                .contains(ROOM_DAY.getRoomId());
+    }
+
+    @Test
+    void conflictsUnseenByTheIndexAreRejectedByTheBitmap() {
+        ReservableRoomId roomDay = new ReservableRoomId(6, ROOM_DAY.getReservedDate().plusDays(1));
+        long mask = TimeSlots.mask(LocalTime.of(13, 0), LocalTime.of(14, 0));
+        assertThat(availabilityIndex.isReserved(roomDay, mask)).isFalse();
+
+        // Booked as if through another node, so the index of this node does not know about it
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(occupancy.occupy(roomDay, mask)).isTrue();
+            jdbcTemplate.update("INSERT INTO reservation (reserved_date, room_id, start_time, end_time, user_id) "
+                    + "VALUES (?, ?, '13:00', '14:00', 'sasuke')", roomDay.getReservedDate(), roomDay.getRoomId());
+        });
+
+        support.signIn("kakashi");
+        assertThatThrownBy(() -> support.reserve(roomDay, naruto, LocalTime.of(13, 30), LocalTime.of(14, 30)))
+                .isInstanceOf(AlreadyReservedException.class);
+        assertThat(occupancy.find(roomDay)).isEqualTo(mask);
+        assertThat(availabilityIndex.isReserved(roomDay, mask)).isTrue();
+    }
+
+    @Test
+    void roomDaysThatCanNotBeReservedAreRejected() {
+        ReservableRoomId unknown = new ReservableRoomId(6, LocalDate.now().plusYears(5));
+        support.signIn("kakashi");
+
+        assertThatThrownBy(() -> support.reserve(unknown, naruto, LocalTime.of(9, 0), LocalTime.of(10, 0)))
+                .isInstanceOf(UnavailableReservationException.class);
+    }
+
+}
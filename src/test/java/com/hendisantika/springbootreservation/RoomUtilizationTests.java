@@ -0,0 +1,88 @@
+package com.hendisantika.springbootreservation;
+
+import com.hendisantika.springbootreservation.domain.ReservableRoomId;
+import com.hendisantika.springbootreservation.domain.Reservation;
+import com.hendisantika.springbootreservation.dto.RoomUtilization;
+import com.hendisantika.springbootreservation.service.ReservationService;
+import com.hendisantika.springbootreservation.service.ReservationUserDetails;
+import com.hendisantika.springbootreservation.service.RoomUtilizationService;
+import com.hendisantika.springbootreservation.service.UtilizationGranularity;
+import com.hendisantika.springbootreservation.util.ReservationTestSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Incremental maintenance and rebuild of the per room-day utilization aggregates.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+class RoomUtilizationTests {
+
+    private static final ReservableRoomId ROOM_DAY = new ReservableRoomId(5, LocalDate.now().plusDays(50));
+
+    @Autowired
+    WebApplicationContext context;
+
+    @Autowired
+    ReservationService reservationService;
+
+    @Autowired
+    RoomUtilizationService utilizationService;
+
+    private ReservationTestSupport support;
+
+    @BeforeEach
+    void setUp() {
+        support = new ReservationTestSupport(context);
+    }
+
+    @AfterEach
+    void clearReservations() {
+        SecurityContextHolder.clearContext();
+        support.clearRoom(ROOM_DAY.getRoomId(), ROOM_DAY.getReservedDate(), ROOM_DAY.getReservedDate());
+    }
+
+    @Test
+    void aggregatesFollowReservationsAndMatchARebuild() {
+        LocalDate date = ROOM_DAY.getReservedDate();
+        ReservationUserDetails kakashi = support.signIn("kakashi");
+        support.reserve(ROOM_DAY, support.user("naruto"), LocalTime.of(9, 0), LocalTime.of(10, 0));
+        Reservation cancelled = support.reserve(ROOM_DAY, support.user("sasuke"), LocalTime.of(10, 0), LocalTime.of(11, 0));
+        support.reserve(ROOM_DAY, support.user("sakura"), LocalTime.of(14, 0), LocalTime.of(14, 30));
+        reservationService.cancel(cancelled.getReservationId(), kakashi);
+
+        RoomUtilization incremental = utilization(date);
+        assertThat(incremental.reservations()).isEqualTo(2);
+        assertThat(incremental.bookedMinutes()).isEqualTo(90);
+        assertThat(incremental.occupancy()).isEqualTo(90 / 1440.0);
+
+        long[] slots = utilizationService.findHeatmap(date, date, ROOM_DAY.getRoomId())
+                .counts().get(date.getDayOfWeek().getValue() - 1);
+        assertThat(slots[18]).isOne();
+        assertThat(slots[19]).isOne();
+        assertThat(slots[20]).isZero();
+        assertThat(slots[28]).isOne();
+
+        assertThat(utilizationService.rebuild(date, date)).isPositive();
+        assertThat(utilization(date)).isEqualTo(incremental);
+    }
+
+    private RoomUtilization utilization(LocalDate date) {
+        List<RoomUtilization> rows = utilizationService.findUtilization(date, date, UtilizationGranularity.DAY, ROOM_DAY.getRoomId());
+        assertThat(rows).hasSize(1);
+        return rows.getFirst();
+    }
+
+}
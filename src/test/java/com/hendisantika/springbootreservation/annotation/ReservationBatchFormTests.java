@@ -0,0 +1,59 @@
+package com.hendisantika.springbootreservation.annotation;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Size bound of {@link ReservationBatchForm}.
+ */
+class ReservationBatchFormTests {
+
+    private static final ValidatorFactory VALIDATOR_FACTORY = Validation.buildDefaultValidatorFactory();
+
+    private final Validator validator = VALIDATOR_FACTORY.getValidator();
+
+    @AfterAll
+    static void closeValidatorFactory() {
+        VALIDATOR_FACTORY.close();
+    }
+
+    @Test
+    void everySlotOfADayFitsIntoOneBatch() {
+        assertThat(validator.validate(batchOf(ReservationBatchForm.MAX_SLOTS))).isEmpty();
+    }
+
+    @Test
+    void largerBatchesAreRejected() {
+        assertThat(validator.validate(batchOf(ReservationBatchForm.MAX_SLOTS + 1)))
+                .extracting(violation -> violation.getPropertyPath().toString(), ConstraintViolation::getMessage)
+                .containsExactly(tuple("slots",
+                        "At most " + ReservationBatchForm.MAX_SLOTS + " time ranges are allowed"));
+    }
+
+    private static ReservationBatchForm batchOf(int size) {
+        List<ReservationForm> slots = IntStream.range(0, size)
+                // Ranges of a batch may overlap as far as the form is concerned
+                .mapToObj(n -> {
+                    ReservationForm slot = new ReservationForm();
+                    slot.setStartTime(LocalTime.MIDNIGHT.plusMinutes(30L * (n % 47)));
+                    slot.setEndTime(slot.getStartTime().plusMinutes(30));
+                    return slot;
+                })
+                .toList();
+        ReservationBatchForm batchForm = new ReservationBatchForm();
+        batchForm.setSlots(slots);
+        return batchForm;
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.hendisantika.springbootreservation.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Permits of {@link BoundedPasswordEncoder}, with a delegate the test holds inside a verification.
+ */
+class BoundedPasswordEncoderTests {
+
+    private static final Duration TIMEOUT = Duration.ofMillis(100);
+
+    private final BlockingEncoder delegate = new BlockingEncoder();
+
+    private final BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(delegate, 1, TIMEOUT);
+
+    @Test
+    void verificationsBeyondTheLimitAreRejectedAfterTheTimeout() throws Exception {
+        Thread holder = Thread.ofVirtual().start(() -> encoder.matches("secret", "hash"));
+        assertThat(delegate.entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> encoder.matches("secret", "hash"))
+                .isInstanceOf(AuthenticationServiceException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isGreaterThanOrEqualTo(TIMEOUT);
+
+        delegate.release.countDown();
+        holder.join();
+
+        assertThat(encoder.matches("secret", "hash")).isTrue();
+    }
+
+    @Test
+    void permitsAreReturnedWhenTheDelegateFails() {
+        delegate.release.countDown();
+        delegate.failing = true;
+
+        assertThatThrownBy(() -> encoder.encode("secret")).isInstanceOf(IllegalStateException.class);
+
+        delegate.failing = false;
+        assertThat(encoder.encode("secret")).isEqualTo("hash");
+    }
+
+    private static final class BlockingEncoder implements PasswordEncoder {
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private volatile boolean failing;
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            if (failing) {
+                throw new IllegalStateException("Hashing failed");
+            }
+            return "hash";
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.hendisantika.springbootreservation.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Remembered password verifications of {@link CachingPasswordEncoder}.
+ */
+class CachingPasswordEncoderTests {
+
+    private final CountingEncoder bcrypt = new CountingEncoder(new BCryptPasswordEncoder(4));
+
+    private final ConcurrentMapCache cache = new ConcurrentMapCache("verifiedCredentials");
+
+    private final CachingPasswordEncoder encoder = new CachingPasswordEncoder(bcrypt, cache);
+
+    @Test
+    void successfulVerificationsAreRemembered() {
+        String hash = bcrypt.encode("secret");
+
+        assertThat(encoder.matches("secret", hash)).isTrue();
+        assertThat(encoder.matches("secret", hash)).isTrue();
+
+        assertThat(bcrypt.verifications).isOne();
+        assertThat(cache.getNativeCache().keySet()).noneMatch(key -> key.toString().contains("secret"));
+    }
+
+    @Test
+    void failedVerificationsAreNotRemembered() {
+        String hash = bcrypt.encode("secret");
+
+        assertThat(encoder.matches("guess", hash)).isFalse();
+        assertThat(encoder.matches("guess", hash)).isFalse();
+
+        assertThat(bcrypt.verifications).isEqualTo(2);
+        assertThat(cache.getNativeCache()).isEmpty();
+    }
+
+    @Test
+    void rememberedVerificationsDoNotOutliveTheStoredHash() {
+        String hash = bcrypt.encode("secret");
+        assertThat(encoder.matches("secret", hash)).isTrue();
+
+        String changed = bcrypt.encode("changed");
+
+        assertThat(encoder.matches("secret", changed)).isFalse();
+        assertThat(encoder.matches("changed", changed)).isTrue();
+        assertThat(bcrypt.verifications).isEqualTo(3);
+    }
+
+    private static final class CountingEncoder implements PasswordEncoder {
+
+        private final PasswordEncoder delegate;
+
+        private int verifications;
+
+        CountingEncoder(PasswordEncoder delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return delegate.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            verifications++;
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+
+    }
+
+}
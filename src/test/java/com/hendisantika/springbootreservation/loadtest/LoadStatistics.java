@@ -0,0 +1,131 @@
+package com.hendisantika.springbootreservation.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of the load test, per endpoint.
+ */
+final class LoadStatistics {
+
+    enum Outcome {
+        OK, CONFLICT, ERROR
+    }
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentSkipListMap<>();
+
+    void record(String endpoint, long nanos, Outcome outcome) {
+        endpoints.computeIfAbsent(endpoint, e -> new Endpoint()).record(nanos, outcome);
+    }
+
+    long requests() {
+        return endpoints.values().stream().mapToLong(Endpoint::requests).sum();
+    }
+
+    double errorRate() {
+        long requests = requests();
+        return requests == 0 ? 0 : (double) endpoints.values().stream().mapToLong(e -> e.errors.sum()).sum() / requests;
+    }
+
+    /**
+     * Machine-readable report for comparing builds.
+     */
+    String toJson(Duration elapsed, int users) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"users\": ").append(users).append(",\n");
+        json.append("  \"durationSeconds\": ").append(format(elapsed.toMillis() / 1000.0)).append(",\n");
+        json.append("  \"requests\": ").append(requests()).append(",\n");
+        json.append("  \"throughputPerSecond\": ").append(format(requests() * 1000.0 / elapsed.toMillis())).append(",\n");
+        json.append("  \"endpoints\": {");
+        String separator = "\n";
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            Endpoint endpoint = entry.getValue();
+            long[] latencies = endpoint.sortedLatencies();
+            json.append(separator).append("    \"").append(entry.getKey()).append("\": {");
+            json.append("\"requests\": ").append(endpoint.requests());
+            json.append(", \"throughputPerSecond\": ").append(format(endpoint.requests() * 1000.0 / elapsed.toMillis()));
+            json.append(", \"errorRate\": ").append(format(endpoint.rate(endpoint.errors)));
+            json.append(", \"conflictRate\": ").append(format(endpoint.rate(endpoint.conflicts)));
+            json.append(", \"p50Millis\": ").append(format(percentileMillis(latencies, 50)));
+            json.append(", \"p95Millis\": ").append(format(percentileMillis(latencies, 95)));
+            json.append(", \"p99Millis\": ").append(format(percentileMillis(latencies, 99)));
+            json.append(", \"maxMillis\": ").append(format(percentileMillis(latencies, 100)));
+            json.append("}");
+            separator = ",\n";
+        }
+        json.append("\n  }\n}\n");
+        return json.toString();
+    }
+
+    /**
+     * Human-readable summary for the build log.
+     */
+    String toTable(Duration elapsed) {
+        StringBuilder table = new StringBuilder(String.format(Locale.ROOT, "%-40s %9s %9s %8s %8s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "errors", "conflict", "p50 ms", "p95 ms", "p99 ms"));
+        endpoints.forEach((name, endpoint) -> {
+            long[] latencies = endpoint.sortedLatencies();
+            table.append(String.format(Locale.ROOT, "%-40s %9d %9.1f %7.2f%% %7.2f%% %9.1f %9.1f %9.1f%n",
+                    name, endpoint.requests(), endpoint.requests() * 1000.0 / elapsed.toMillis(),
+                    endpoint.rate(endpoint.errors) * 100, endpoint.rate(endpoint.conflicts) * 100,
+                    percentileMillis(latencies, 50), percentileMillis(latencies, 95), percentileMillis(latencies, 99)));
+        });
+        return table.toString();
+    }
+
+    private static double percentileMillis(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static final class Endpoint {
+
+        private final List<Long> latencies = new ArrayList<>();
+
+        private final LongAdder conflicts = new LongAdder();
+
+        private final LongAdder errors = new LongAdder();
+
+        synchronized void record(long nanos, Outcome outcome) {
+            latencies.add(nanos);
+            switch (outcome) {
+                case CONFLICT -> conflicts.increment();
+                case ERROR -> errors.increment();
+                case OK -> {
+                }
+            }
+        }
+
+        synchronized long requests() {
+            return latencies.size();
+        }
+
+        synchronized long[] sortedLatencies() {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            return sorted;
+        }
+
+        double rate(LongAdder count) {
+            long requests = requests();
+            return requests == 0 ? 0 : (double) count.sum() / requests;
+        }
+
+    }
+
+}
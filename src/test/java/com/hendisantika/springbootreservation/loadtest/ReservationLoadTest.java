@@ -0,0 +1,85 @@
+package com.hendisantika.springbootreservation.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load test: boots the application against PostgreSQL in a container, migrated by
+ * Flyway, and drives concurrent virtual users through login, room list, reservation form,
+ * reserve and cancel.
+ * <p>
+ * Run with {@code mvn -Ploadtest test}. Tune with {@code -Dloadtest.users=50},
+ * {@code -Dloadtest.duration=PT60S}, {@code -Dloadtest.think-time=PT0.1S} and
+ * {@code -Dloadtest.max-error-rate=0.01}. The report is written to
+ * {@code target/loadtest/report.json}.
+ */
+@Slf4j
+@Tag("loadtest")
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.docker.compose.enabled=false", "spring.jpa.show-sql=false",
+                "logging.level.org.hibernate.SQL=INFO", "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"})
+class ReservationLoadTest {
+
+    /**
+     * Seeded accounts of V2 and V3.
+     */
+    private static final List<String[]> ACCOUNTS = List.of(
+            new String[]{"naruto", "53cret"},
+            new String[]{"sasuke", "password"},
+            new String[]{"sakura", "password"},
+            new String[]{"kakashi", "password"});
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:17-alpine");
+
+    @Value("${local.server.port}")
+    int port;
+
+    @Test
+    void reserveAndCancelUnderLoad() throws Exception {
+        int users = Integer.getInteger("loadtest.users", 50);
+        Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT60S"));
+        Duration thinkTime = Duration.parse(System.getProperty("loadtest.think-time", "PT0.1S"));
+        double maxErrorRate = Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01"));
+
+        LoadStatistics statistics = new LoadStatistics();
+        long started = System.nanoTime();
+        long deadline = started + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < users; i++) {
+                String[] account = ACCOUNTS.get(i % ACCOUNTS.size());
+                executor.execute(new VirtualUser("http://localhost:" + port, account[0], account[1], deadline,
+                        thinkTime, statistics));
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+        Path report = Path.of("target", "loadtest", "report.json");
+        Files.createDirectories(report.getParent());
+        Files.writeString(report, statistics.toJson(elapsed, users));
+        log.info("Load test with {} users over {}:\n{}Report: {}", users, elapsed, statistics.toTable(elapsed),
+                report.toAbsolutePath());
+
+        assertThat(statistics.requests()).isPositive();
+        assertThat(statistics.errorRate()).isLessThanOrEqualTo(maxErrorRate);
+    }
+
+}
@@ -0,0 +1,168 @@
+package com.hendisantika.springbootreservation.loadtest;
+
+import com.hendisantika.springbootreservation.loadtest.LoadStatistics.Outcome;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One simulated user: logs in once, then repeatedly lists the rooms of a day, opens a room,
+ * reserves a random slot and cancels it again until the deadline.
+ */
+final class VirtualUser implements Runnable {
+
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+
+    private static final Pattern ROOM_ID = Pattern.compile("\"roomId\"\\s*:\\s*(\\d+)");
+
+    private static final Pattern RESERVATION_ID = Pattern.compile("\"reservationId\"\\s*:\\s*(\\d+)");
+
+    private final String baseUri;
+
+    private final String username;
+
+    private final String password;
+
+    private final long deadline;
+
+    private final Duration thinkTime;
+
+    private final LoadStatistics statistics;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .cookieHandler(new CookieManager())
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    VirtualUser(String baseUri, String username, String password, long deadline, Duration thinkTime,
+                LoadStatistics statistics) {
+        this.baseUri = baseUri;
+        this.username = username;
+        this.password = password;
+        this.deadline = deadline;
+        this.thinkTime = thinkTime;
+        this.statistics = statistics;
+    }
+
+    @Override
+    public void run() {
+        if (!login()) {
+            return;
+        }
+        while (System.nanoTime() < deadline) {
+            iteration();
+            pause();
+        }
+    }
+
+    private boolean login() {
+        HttpResponse<String> form = send("GET /loginForm", HttpRequest.newBuilder(uri("/loginForm")).GET(), 200);
+        String csrf = form == null ? null : find(CSRF, form.body());
+        if (csrf == null) {
+            return false;
+        }
+        String body = "username=" + encode(username) + "&password=" + encode(password) + "&_csrf=" + encode(csrf);
+        HttpResponse<String> login = send("POST /login", HttpRequest.newBuilder(uri("/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body)), 302);
+        return login != null && login.headers().firstValue("Location").filter(l -> !l.contains("error")).isPresent();
+    }
+
+    private void iteration() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate date = LocalDate.now().plusDays(1 + random.nextInt(14));
+
+        send("GET /rooms/{date}", HttpRequest.newBuilder(uri("/rooms/" + date)).GET(), 200);
+
+        HttpResponse<String> rooms = send("GET /api/rooms/{date}", HttpRequest.newBuilder(uri("/api/rooms/" + date)).GET(), 200);
+        List<String> roomIds = rooms == null ? List.of() : findAll(ROOM_ID, rooms.body());
+        if (roomIds.isEmpty()) {
+            return;
+        }
+        String roomId = roomIds.get(random.nextInt(roomIds.size()));
+
+        send("GET /reservations/{date}/{roomId}", HttpRequest.newBuilder(uri("/reservations/" + date + "/" + roomId)).GET(), 200);
+
+        LocalTime start = LocalTime.of(8, 0).plusMinutes(30L * random.nextInt(24));
+        LocalTime end = start.plusMinutes(30L * (1 + random.nextInt(2)));
+        String json = "{\"startTime\":\"" + start + "\",\"endTime\":\"" + end + "\"}";
+        HttpResponse<String> reserved = send("POST /api/reservations/{date}/{roomId}",
+                HttpRequest.newBuilder(uri("/api/reservations/" + date + "/" + roomId))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(json)), 201);
+        String reservationId = reserved == null || reserved.statusCode() != 201 ? null : find(RESERVATION_ID, reserved.body());
+        if (reservationId == null) {
+            return;
+        }
+
+        pause();
+        send("DELETE /api/reservations/{id}", HttpRequest.newBuilder(uri("/api/reservations/" + reservationId)).DELETE(), 204);
+    }
+
+    private HttpResponse<String> send(String endpoint, HttpRequest.Builder request, int expectedStatus) {
+        long started = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request.timeout(Duration.ofSeconds(30)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            Outcome outcome = response.statusCode() == expectedStatus ? Outcome.OK
+                    : response.statusCode() == 409 ? Outcome.CONFLICT : Outcome.ERROR;
+            statistics.record(endpoint, System.nanoTime() - started, outcome);
+            return response;
+        } catch (IOException e) {
+            statistics.record(endpoint, System.nanoTime() - started, Outcome.ERROR);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private void pause() {
+        if (thinkTime.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(thinkTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUri + path);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String find(Pattern pattern, String text) {
+        Matcher matcher = pattern.matcher(text);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static List<String> findAll(Pattern pattern, String text) {
+        List<String> matches = new ArrayList<>();
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            matches.add(matcher.group(1));
+        }
+        return matches;
+    }
+
+}
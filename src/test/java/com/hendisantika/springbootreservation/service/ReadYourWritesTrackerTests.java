@@ -0,0 +1,139 @@
+package com.hendisantika.springbootreservation.service;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Read-your-writes window of {@link ReadYourWritesTracker}, on a clock the test moves forward.
+ */
+class ReadYourWritesTrackerTests {
+
+    private final TestClock clock = new TestClock();
+
+    private final ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofSeconds(5), clock);
+
+    @AfterEach
+    void clearSecurityAndRequestContext() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void writersArePinnedToPrimaryWithinTheWindow() {
+        as("sakura", () -> {
+            tracker.recordWrite();
+            return null;
+        });
+
+        clock.advance(Duration.ofSeconds(5));
+
+        assertThat(as("sakura", tracker::isPinnedToPrimary)).isTrue();
+        assertThat(as("kakashi", tracker::isPinnedToPrimary)).isFalse();
+    }
+
+    @Test
+    void writersAreReleasedAfterTheWindow() {
+        as("sakura", () -> {
+            tracker.recordWrite();
+            return null;
+        });
+
+        clock.advance(Duration.ofSeconds(5).plusMillis(1));
+
+        assertThat(as("sakura", tracker::isPinnedToPrimary)).isFalse();
+    }
+
+    @Test
+    void clientsArePinnedOnEveryNodeByTheirCookie() {
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), writeResponse));
+        as("sakura", () -> {
+            tracker.recordWrite();
+            return null;
+        });
+        Cookie cookie = writeResponse.getCookie(ReadYourWritesTracker.COOKIE_NAME);
+        assertThat(cookie).isNotNull();
+        assertThat(cookie.getMaxAge()).isEqualTo(5);
+        assertThat(cookie.isHttpOnly()).isTrue();
+
+        ReadYourWritesTracker otherNode = new ReadYourWritesTracker(Duration.ofSeconds(5), clock);
+        MockHttpServletRequest readRequest = new MockHttpServletRequest();
+        readRequest.setCookies(cookie);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(readRequest));
+
+        assertThat(as("sakura", otherNode::isPinnedToPrimary)).isTrue();
+
+        clock.advance(Duration.ofSeconds(5).plusMillis(1));
+
+        assertThat(as("sakura", otherNode::isPinnedToPrimary)).isFalse();
+    }
+
+    @Test
+    void cookiesFromTheFarFutureAreIgnored() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie(ReadYourWritesTracker.COOKIE_NAME, Long.toString(Long.MAX_VALUE)));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        assertThat(as("sakura", tracker::isPinnedToPrimary)).isFalse();
+    }
+
+    @Test
+    void anonymousReadsAreNeverPinned() {
+        tracker.recordWrite();
+
+        assertThat(tracker.isPinnedToPrimary()).isFalse();
+    }
+
+    private static <T> T as(String userId, Supplier<T> action) {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(userId, null, List.of()));
+        try {
+            return action.get();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static final class TestClock extends Clock {
+
+        private Instant now = Instant.parse("2026-10-17T09:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+    }
+
+}
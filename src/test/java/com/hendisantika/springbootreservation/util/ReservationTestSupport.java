@@ -0,0 +1,131 @@
+package com.hendisantika.springbootreservation.util;
+
+import com.hendisantika.springbootreservation.domain.ReservableRoom;
+import com.hendisantika.springbootreservation.domain.ReservableRoomId;
+import com.hendisantika.springbootreservation.domain.Reservation;
+import com.hendisantika.springbootreservation.domain.User;
+import com.hendisantika.springbootreservation.repository.UserRepository;
+import com.hendisantika.springbootreservation.service.ReservationService;
+import com.hendisantika.springbootreservation.service.ReservationUserDetails;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.function.Supplier;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+
+/**
+ * Users, reservations and MockMvc for the integration tests.
+ * <p>
+ * Created per test class from its application context rather than registered as a bean, so using it
+ * does not change which cached context the test runs in. Room-days a test reserves on are cleared
+ * with {@link #clearRoom}, which goes through {@link ReservationService} so that occupancy,
+ * utilization aggregates, availability index and versions follow.
+ */
+public class ReservationTestSupport {
+
+    private static final String ADMINISTRATOR = "kakashi";
+
+    private final WebApplicationContext context;
+
+    public ReservationTestSupport(WebApplicationContext context) {
+        this.context = context;
+    }
+
+    /**
+     * Return a MockMvc for the whole application, including the security filter chain.
+     */
+    public MockMvc mockMvc() {
+        return MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+    }
+
+    /**
+     * Return the details of a user of the sample data.
+     *
+     * @param userId e.g. {@code naruto}, or {@code kakashi} for an administrator
+     * @return the user's details
+     */
+    public ReservationUserDetails user(String userId) {
+        return new ReservationUserDetails(context.getBean(UserRepository.class).findByUserId(userId).orElseThrow());
+    }
+
+    /**
+     * Authenticate the current thread as a user until the security context is cleared.
+     *
+     * @param userId user to sign in
+     * @return the user's details
+     */
+    public ReservationUserDetails signIn(String userId) {
+        ReservationUserDetails user = user(userId);
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+        return user;
+    }
+
+    /**
+     * Run an action authenticated as a user and clear the security context afterwards.
+     *
+     * @param userId user to run as
+     * @param action action to run
+     * @return the result of the action
+     */
+    public <T> T as(String userId, Supplier<T> action) {
+        signIn(userId);
+        try {
+            return action.get();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    /**
+     * Reserve a time range through {@link ReservationService#reserve}.
+     *
+     * @param reservableRoomId room and date
+     * @param user             user who reserves
+     * @param startTime        start of the range
+     * @param endTime          end of the range
+     * @return the saved reservation
+     */
+    public Reservation reserve(ReservableRoomId reservableRoomId, ReservationUserDetails user,
+                               LocalTime startTime, LocalTime endTime) {
+        return context.getBean(ReservationService.class).reserve(reservation(reservableRoomId, user.getUser(), startTime, endTime));
+    }
+
+    /**
+     * Cancel all reservations of a room in a date range as an administrator.
+     *
+     * @param roomId meeting room id
+     * @param from   first date, inclusive
+     * @param to     last date, inclusive
+     */
+    public void clearRoom(int roomId, LocalDate from, LocalDate to) {
+        as(ADMINISTRATOR, () -> context.getBean(ReservationService.class).clearRoom(roomId, from, to));
+    }
+
+    /**
+     * Return an unsaved reservation. Sends no query, so it can be built inside a counted block.
+     *
+     * @param reservableRoomId room and date
+     * @param user             user who reserves
+     * @param startTime        start of the range
+     * @param endTime          end of the range
+     * @return the reservation
+     */
+    public static Reservation reservation(ReservableRoomId reservableRoomId, User user, LocalTime startTime, LocalTime endTime) {
+        ReservableRoom reservableRoom = new ReservableRoom();
+        reservableRoom.setReservableRoomId(reservableRoomId);
+        Reservation reservation = new Reservation();
+        reservation.setReservableRoom(reservableRoom);
+        reservation.setUser(user);
+        reservation.setStartTime(startTime);
+        reservation.setEndTime(endTime);
+        return reservation;
+    }
+
+}
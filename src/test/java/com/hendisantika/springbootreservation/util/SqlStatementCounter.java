@@ -0,0 +1,42 @@
+package com.hendisantika.springbootreservation.util;
+
+import com.hendisantika.springbootreservation.config.RequestStatistics;
+
+import java.util.List;
+
+/**
+ * Records the SQL sent on the current thread between {@link #start()} and {@link #stop()}, whether it
+ * comes from Hibernate or from {@code JdbcTemplate}. Reads the counts the application keeps for its
+ * {@code reservation.request.statements} metric, so tests and metric count the same way. Requests
+ * performed through MockMvc in between are counted into the same recording.
+ */
+public final class SqlStatementCounter {
+
+    private static final ThreadLocal<RequestStatistics> RECORDING = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    /**
+     * Start recording on the current thread.
+     */
+    public static void start() {
+        RECORDING.set(RequestStatistics.begin());
+    }
+
+    /**
+     * Stop recording on the current thread.
+     *
+     * @return statements sent since {@link #start()}
+     */
+    public static List<String> stop() {
+        RequestStatistics statistics = RECORDING.get();
+        if (statistics == null) {
+            return List.of();
+        }
+        RECORDING.remove();
+        RequestStatistics.end();
+        return statistics.getSql();
+    }
+
+}